@@ -0,0 +1,43 @@
+package com.banking.config;
+
+import com.banking.persistence.FileSnapshotStore;
+import com.banking.persistence.FsyncPolicy;
+import com.banking.persistence.SnapshotStore;
+import com.banking.persistence.TransactionJournal;
+import com.banking.persistence.WriteAheadLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Wires the transaction journal and snapshot store: a memory-mapped write-ahead log and snapshot files
+ * when persistence is enabled, otherwise no-op implementations that keep the ledger in memory only.
+ */
+@Configuration
+public class PersistenceConfig {
+
+    @Bean(destroyMethod = "close")
+    public TransactionJournal transactionJournal(
+            @Value("${banking.persistence.enabled:false}") boolean enabled,
+            @Value("${banking.persistence.directory:data/wal}") String directory,
+            @Value("${banking.persistence.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${banking.persistence.fsync:INTERVAL}") FsyncPolicy fsyncPolicy,
+            @Value("${banking.persistence.fsync-interval-ms:100}") long fsyncIntervalMillis) throws IOException {
+        if (!enabled) {
+            return TransactionJournal.NONE;
+        }
+        return new WriteAheadLog(Paths.get(directory), segmentSizeMb * 1024 * 1024, fsyncPolicy, fsyncIntervalMillis);
+    }
+
+    @Bean
+    public SnapshotStore snapshotStore(
+            @Value("${banking.persistence.enabled:false}") boolean enabled,
+            @Value("${banking.persistence.snapshot-directory:data/snapshots}") String directory) throws IOException {
+        if (!enabled) {
+            return SnapshotStore.NONE;
+        }
+        return new FileSnapshotStore(Paths.get(directory));
+    }
+}
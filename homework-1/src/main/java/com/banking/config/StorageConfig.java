@@ -0,0 +1,21 @@
+package com.banking.config;
+
+import com.banking.repository.storage.OffHeapTransactionStore;
+import com.banking.repository.storage.StorageEngine;
+import com.banking.repository.storage.TransactionLog;
+import com.banking.repository.storage.TransactionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the storage engine that holds transaction rows.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    public TransactionStore transactionStore(@Value("${banking.storage.engine:HEAP}") StorageEngine engine) {
+        return engine == StorageEngine.OFF_HEAP ? new OffHeapTransactionStore() : new TransactionLog();
+    }
+}
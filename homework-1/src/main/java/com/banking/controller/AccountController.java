@@ -1,8 +1,14 @@
 package com.banking.controller;
 
+import com.banking.dto.AccountReportResponse;
+import com.banking.dto.AggregateVerificationResponse;
 import com.banking.dto.BalanceResponse;
+import com.banking.dto.StatementResponse;
+import com.banking.dto.TopAccountsResponse;
 import com.banking.dto.TransactionSummaryResponse;
+import com.banking.exception.BadRequestException;
 import com.banking.exception.ResourceNotFoundException;
+import com.banking.repository.SnapshotExpiredException;
 import com.banking.service.TransactionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,19 +28,50 @@ public class AccountController {
     }
 
     /**
-     * Retrieves the current balance for an account.
+     * Lists the most active accounts over a recent window, by transaction count or by amount sent.
+     *
+     * @param by optional ranking: count (default) or volume
+     * @param currency the currency to rank volume in; required with {@code by=volume}
+     * @param window optional window length, e.g. 15m, 1h or PT30M
+     * @param limit optional number of accounts (default 10)
+     * @return 200 OK with the estimated top accounts
+     */
+    @GetMapping("/top")
+    public ResponseEntity<TopAccountsResponse> getTopAccounts(
+            @RequestParam(required = false) String by,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) String window,
+            @RequestParam(required = false) String limit) {
+        try {
+            return ResponseEntity.ok(transactionService.getTopAccounts(by, currency, window, limit));
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid top accounts parameters: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the current balance for an account, or its balance at a past instant.
      *
      * @param accountId the account ID
+     * @param asOf optional instant (ISO format) for a historical balance, inclusive
      * @return 200 OK with balance details
      */
     @GetMapping("/{accountId}/balance")
-    public ResponseEntity<BalanceResponse> getAccountBalance(@PathVariable String accountId) {
+    public ResponseEntity<BalanceResponse> getAccountBalance(
+            @PathVariable String accountId,
+            @RequestParam(required = false) String asOf) {
         if (accountId == null || accountId.isBlank()) {
             throw new ResourceNotFoundException("Account ID is required");
         }
 
-        BalanceResponse balance = transactionService.getAccountBalance(accountId);
-        return ResponseEntity.ok(balance);
+        try {
+            BalanceResponse balance = transactionService.getAccountBalance(accountId, asOf);
+            return ResponseEntity.ok(balance);
+        } catch (SnapshotExpiredException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid asOf parameter: " + e.getMessage());
+        }
     }
 
     /**
@@ -52,4 +89,75 @@ public class AccountController {
         TransactionSummaryResponse summary = transactionService.getAccountSummary(accountId);
         return ResponseEntity.ok(summary);
     }
+
+    /**
+     * Retrieves an account's balance, summary and transactions read from one consistent ledger snapshot.
+     *
+     * @param accountId the account ID
+     * @param from optional start of the listed transactions (ISO format)
+     * @param to optional end of the listed transactions (ISO format)
+     * @return 200 OK with the report
+     */
+    @GetMapping("/{accountId}/report")
+    public ResponseEntity<AccountReportResponse> getAccountReport(
+            @PathVariable String accountId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        if (accountId == null || accountId.isBlank()) {
+            throw new ResourceNotFoundException("Account ID is required");
+        }
+
+        try {
+            return ResponseEntity.ok(transactionService.getAccountReport(accountId, from, to));
+        } catch (SnapshotExpiredException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid report parameters: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves an account statement split into hourly, daily or monthly periods, each with its opening
+     * balance, money in, money out, transaction count and closing balance.
+     *
+     * @param accountId the account ID
+     * @param granularity optional period length: hour, day or month (default)
+     * @param from optional start of the statement (ISO format), rounded down to its period
+     * @param to optional end of the statement (ISO format)
+     * @return 200 OK with the statement
+     */
+    @GetMapping("/{accountId}/statement")
+    public ResponseEntity<StatementResponse> getAccountStatement(
+            @PathVariable String accountId,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        if (accountId == null || accountId.isBlank()) {
+            throw new ResourceNotFoundException("Account ID is required");
+        }
+
+        try {
+            StatementResponse statement = transactionService.getAccountStatement(accountId, granularity, from, to);
+            return ResponseEntity.ok(statement);
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid statement parameters: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes an account's totals from the transaction log and reports any drift
+     * from the incrementally maintained values.
+     *
+     * @param accountId the account ID
+     * @return 200 OK with the verification result
+     */
+    @GetMapping("/{accountId}/verify")
+    public ResponseEntity<AggregateVerificationResponse> verifyAccount(@PathVariable String accountId) {
+        if (accountId == null || accountId.isBlank()) {
+            throw new ResourceNotFoundException("Account ID is required");
+        }
+
+        AggregateVerificationResponse verification = transactionService.verifyAccountAggregate(accountId);
+        return ResponseEntity.ok(verification);
+    }
 }
@@ -1,16 +1,33 @@
 package com.banking.controller;
 
+import com.banking.dto.BatchTransactionResponse;
 import com.banking.dto.CreateTransactionRequest;
+import com.banking.dto.IdempotencyStatsResponse;
+import com.banking.dto.QueryPlanResponse;
+import com.banking.dto.SettlementStatsResponse;
+import com.banking.dto.TransactionPage;
 import com.banking.dto.TransactionResponse;
 import com.banking.dto.ValidationErrorResponse;
 import com.banking.exception.BadRequestException;
+import com.banking.exception.InsufficientFundsException;
 import com.banking.exception.ResourceNotFoundException;
+import com.banking.service.IdempotencyCache;
+import com.banking.service.SettlementWorker;
 import com.banking.service.TransactionService;
 import com.banking.validator.TransactionValidator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * REST controller for transaction operations.
@@ -19,54 +36,297 @@ import java.util.List;
 @RestController
 @RequestMapping("/transactions")
 public class TransactionController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
     private final TransactionService transactionService;
     private final TransactionValidator validator;
+    private final IdempotencyCache idempotencyCache;
+    private final SettlementWorker settlementWorker;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
 
-    public TransactionController(TransactionService transactionService, TransactionValidator validator) {
+    public TransactionController(TransactionService transactionService, TransactionValidator validator,
+                                 IdempotencyCache idempotencyCache, SettlementWorker settlementWorker,
+                                 ObjectMapper objectMapper,
+                                 @Value("${banking.batch.max-size:10000}") int maxBatchSize) {
         this.transactionService = transactionService;
         this.validator = validator;
+        this.idempotencyCache = idempotencyCache;
+        this.settlementWorker = settlementWorker;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
     }
 
     /**
      * Creates a new transaction.
+     * With an {@value #IDEMPOTENCY_KEY_HEADER} header, retries and concurrent duplicates of the same
+     * request create the transaction once; replays return the stored response with
+     * {@value #IDEMPOTENT_REPLAYED_HEADER}: true.
      *
      * @param request the transaction creation request
-     * @return 201 Created with transaction details, or 400 Bad Request if validation fails
+     * @param idempotencyKey optional client-chosen key identifying the logical request
+     * @return 201 Created with transaction details, 400 Bad Request if validation fails
+     *         or the key was already used with a different request, or 422 Unprocessable Entity if the funds
+     *         check is enabled and the source balance is too low
      */
     @PostMapping
-    public ResponseEntity<Object> createTransaction(@RequestBody CreateTransactionRequest request) {
+    public ResponseEntity<Object> createTransaction(
+            @RequestBody CreateTransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         // Validate request
         ValidationErrorResponse validationError = validator.validate(request);
         if (validationError != null) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(validationError);
         }
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new BadRequestException(IDEMPOTENCY_KEY_HEADER + " must be between 1 and " +
+                    MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
 
         try {
-            TransactionResponse response = transactionService.createTransaction(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            if (idempotencyKey == null) {
+                TransactionResponse response = transactionService.createTransaction(request);
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            }
+            IdempotencyCache.Result result = idempotencyCache.execute(idempotencyKey, fingerprint(request),
+                    () -> transactionService.createTransaction(request));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.isReplayed()))
+                    .body(result.getResponse());
+        } catch (InsufficientFundsException e) {
+            throw e;
         } catch (Exception e) {
             throw new BadRequestException("Failed to create transaction: " + e.getMessage());
         }
     }
 
+    /**
+     * Statistics of the idempotency key cache: size, bounds, hits, misses, coalesced duplicates,
+     * key conflicts, evictions and expirations.
+     *
+     * @return 200 OK with the cache statistics
+     */
+    @GetMapping("/idempotency/stats")
+    public ResponseEntity<IdempotencyStatsResponse> getIdempotencyStats() {
+        return ResponseEntity.ok(idempotencyCache.stats());
+    }
+
+    /**
+     * Statistics of two-phase settlement: configuration, transactions still pending, totals completed and failed,
+     * batches run, and the size, duration and throughput of the last run that settled anything.
+     *
+     * @return 200 OK with the settlement statistics
+     */
+    @GetMapping("/settlement/stats")
+    public ResponseEntity<SettlementStatsResponse> getSettlementStats() {
+        return ResponseEntity.ok(settlementWorker.stats());
+    }
+
+    /**
+     * Identifies a request by the fields that define the transaction, normalized the way
+     * the service normalizes them.
+     */
+    private static String fingerprint(CreateTransactionRequest request) {
+        return String.join("|",
+                String.valueOf(request.getFromAccount()),
+                String.valueOf(request.getToAccount()),
+                request.getAmount().stripTrailingZeros().toPlainString(),
+                request.getCurrency().toUpperCase(),
+                request.getType().toUpperCase());
+    }
+
+    /**
+     * Creates a batch of transactions in one request.
+     * Each item is validated independently, and checked against its source balance when the funds check
+     * is enabled; the accepted ones are committed to the repository together.
+     *
+     * @param requests the transaction creation requests
+     * @return 200 OK with the outcome of every item, or 400 Bad Request if the batch itself is invalid
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTransactionResponse> createTransactionBatch(
+            @RequestBody List<CreateTransactionRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("Batch must contain at least one transaction");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new BadRequestException("Batch must not contain more than " + maxBatchSize + " transactions");
+        }
+
+        BatchTransactionResponse.ItemResult[] results = new BatchTransactionResponse.ItemResult[requests.size()];
+        List<CreateTransactionRequest> accepted = new ArrayList<>(requests.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CreateTransactionRequest request = requests.get(i);
+            ValidationErrorResponse validationError = request == null ?
+                    new ValidationErrorResponse("Validation failed", List.of(
+                            new ValidationErrorResponse.ValidationError("transaction", "Transaction is required"))) :
+                    validator.validate(request);
+            if (validationError != null) {
+                results[i] = new BatchTransactionResponse.ItemResult(
+                        i, BatchTransactionResponse.ItemResult.REJECTED, null, validationError.getDetails());
+            } else {
+                accepted.add(request);
+                acceptedIndexes.add(i);
+            }
+        }
+
+        List<BatchTransactionResponse.ItemResult> outcomes;
+        try {
+            outcomes = transactionService.createTransactions(accepted);
+        } catch (Exception e) {
+            throw new BadRequestException("Failed to create transactions: " + e.getMessage());
+        }
+        int created = 0;
+        for (BatchTransactionResponse.ItemResult outcome : outcomes) {
+            int index = acceptedIndexes.get(outcome.getIndex());
+            outcome.setIndex(index);
+            results[index] = outcome;
+            if (BatchTransactionResponse.ItemResult.CREATED.equals(outcome.getStatus())) {
+                created++;
+            }
+        }
+
+        return ResponseEntity.ok(new BatchTransactionResponse(
+                requests.size(), created, requests.size() - created, Arrays.asList(results)));
+    }
+
     /**
      * Retrieves all transactions with optional filters.
+     * When {@code limit} or {@code cursor} is given, returns one page ordered by timestamp, then save order,
+     * and puts the cursor of the next page in the {@value #NEXT_CURSOR_HEADER} header.
      *
      * @param accountId optional filter by account ID
      * @param type optional filter by transaction type (DEPOSIT, WITHDRAWAL, TRANSFER)
+     * @param status optional filter by status (PENDING, COMPLETED, FAILED), comma-separated for several
      * @param from optional filter by start date (ISO format)
      * @param to optional filter by end date (ISO format)
+     * @param minAmount optional filter by minimum amount (inclusive)
+     * @param maxAmount optional filter by maximum amount (inclusive)
+     * @param currency optional filter by currency
+     * @param cursor optional cursor from a previous page
+     * @param limit optional page size
      * @return 200 OK with list of transactions
      */
     @GetMapping
     public ResponseEntity<List<TransactionResponse>> getTransactions(
             @RequestParam(required = false) String accountId,
             @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String minAmount,
+            @RequestParam(required = false) String maxAmount,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String limit) {
+        try {
+            if (cursor == null && limit == null) {
+                List<TransactionResponse> transactions = transactionService.getAllTransactions(
+                        accountId, type, status, from, to, minAmount, maxAmount, currency);
+                return ResponseEntity.ok(transactions);
+            }
+
+            TransactionPage page = transactionService.getTransactionsPage(
+                    accountId, type, status, from, to, minAmount, maxAmount, currency, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getTransactions());
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid filter parameters: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exports transactions as newline-delimited JSON, one transaction per line.
+     * Rows are written straight from storage as the client reads them, so memory use does
+     * not depend on the size of the export; a slow client simply slows the writer down.
+     *
+     * @param accountId optional filter by account ID
+     * @param type optional filter by transaction type
+     * @param status optional filter by status (PENDING, COMPLETED, FAILED), comma-separated for several
+     * @param from optional filter by start date (ISO format)
+     * @param to optional filter by end date (ISO format)
+     * @param minAmount optional filter by minimum amount (inclusive)
+     * @param maxAmount optional filter by maximum amount (inclusive)
+     * @param currency optional filter by currency
+     * @return 200 OK with an application/x-ndjson body
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) String accountId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String minAmount,
+            @RequestParam(required = false) String maxAmount,
+            @RequestParam(required = false) String currency) {
+        Stream<TransactionResponse> rows;
+        try {
+            rows = transactionService.exportTransactions(
+                    accountId, type, status, from, to, minAmount, maxAmount, currency);
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid filter parameters: " + e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> {
+            try (Stream<TransactionResponse> stream = rows;
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+
+                Iterator<TransactionResponse> iterator = stream.iterator();
+                int written = 0;
+                while (iterator.hasNext()) {
+                    generator.writeObject(iterator.next());
+                    generator.writeRaw('\n');
+                    // Flush regularly so the buffer stays small and the client sees progress
+                    if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.flush();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Explains how GET /transactions would execute with the given filters.
+     *
+     * @param accountId optional filter by account ID
+     * @param type optional filter by transaction type
+     * @param status optional filter by status (PENDING, COMPLETED, FAILED), comma-separated for several
+     * @param from optional filter by start date (ISO format)
+     * @param to optional filter by end date (ISO format)
+     * @param minAmount optional filter by minimum amount (inclusive)
+     * @param maxAmount optional filter by maximum amount (inclusive)
+     * @param currency optional filter by currency
+     * @return 200 OK with the chosen access path and residual filters
+     */
+    @GetMapping("/explain")
+    public ResponseEntity<QueryPlanResponse> explainTransactions(
+            @RequestParam(required = false) String accountId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
             @RequestParam(required = false) String from,
-            @RequestParam(required = false) String to) {
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String minAmount,
+            @RequestParam(required = false) String maxAmount,
+            @RequestParam(required = false) String currency) {
         try {
-            List<TransactionResponse> transactions = transactionService.getAllTransactions(accountId, type, from, to);
-            return ResponseEntity.ok(transactions);
+            QueryPlanResponse plan = transactionService.explainTransactions(
+                    accountId, type, status, from, to, minAmount, maxAmount, currency);
+            return ResponseEntity.ok(plan);
         } catch (Exception e) {
             throw new BadRequestException("Invalid filter parameters: " + e.getMessage());
         }
@@ -0,0 +1,63 @@
+package com.banking.dto;
+
+import java.util.List;
+
+public class AccountReportResponse {
+    private String accountId;
+    private int logPosition;
+    private BalanceResponse balance;
+    private TransactionSummaryResponse summary;
+    private List<TransactionResponse> transactions;
+
+    public AccountReportResponse() {
+    }
+
+    public AccountReportResponse(String accountId, int logPosition, BalanceResponse balance,
+                                 TransactionSummaryResponse summary, List<TransactionResponse> transactions) {
+        this.accountId = accountId;
+        this.logPosition = logPosition;
+        this.balance = balance;
+        this.summary = summary;
+        this.transactions = transactions;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public int getLogPosition() {
+        return logPosition;
+    }
+
+    public void setLogPosition(int logPosition) {
+        this.logPosition = logPosition;
+    }
+
+    public BalanceResponse getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BalanceResponse balance) {
+        this.balance = balance;
+    }
+
+    public TransactionSummaryResponse getSummary() {
+        return summary;
+    }
+
+    public void setSummary(TransactionSummaryResponse summary) {
+        this.summary = summary;
+    }
+
+    public List<TransactionResponse> getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(List<TransactionResponse> transactions) {
+        this.transactions = transactions;
+    }
+}
@@ -0,0 +1,81 @@
+package com.banking.dto;
+
+import java.util.List;
+
+public class AggregateVerificationResponse {
+    private String accountId;
+    private boolean consistent;
+    private List<Drift> drifts;
+
+    public AggregateVerificationResponse() {
+    }
+
+    public AggregateVerificationResponse(String accountId, boolean consistent, List<Drift> drifts) {
+        this.accountId = accountId;
+        this.consistent = consistent;
+        this.drifts = drifts;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    public void setConsistent(boolean consistent) {
+        this.consistent = consistent;
+    }
+
+    public List<Drift> getDrifts() {
+        return drifts;
+    }
+
+    public void setDrifts(List<Drift> drifts) {
+        this.drifts = drifts;
+    }
+
+    public static class Drift {
+        private String field;
+        private String expected;
+        private String actual;
+
+        public Drift() {
+        }
+
+        public Drift(String field, String expected, String actual) {
+            this.field = field;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public void setField(String field) {
+            this.field = field;
+        }
+
+        public String getExpected() {
+            return expected;
+        }
+
+        public void setExpected(String expected) {
+            this.expected = expected;
+        }
+
+        public String getActual() {
+            return actual;
+        }
+
+        public void setActual(String actual) {
+            this.actual = actual;
+        }
+    }
+}
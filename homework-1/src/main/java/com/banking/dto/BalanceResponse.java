@@ -1,11 +1,13 @@
 package com.banking.dto;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 public class BalanceResponse {
     private String accountId;
     private BigDecimal balance;
     private String currency;
+    private LocalDateTime asOf;
 
     public BalanceResponse() {
     }
@@ -16,6 +18,11 @@ public class BalanceResponse {
         this.currency = currency;
     }
 
+    public BalanceResponse(String accountId, BigDecimal balance, String currency, LocalDateTime asOf) {
+        this(accountId, balance, currency);
+        this.asOf = asOf;
+    }
+
     public String getAccountId() {
         return accountId;
     }
@@ -39,4 +46,12 @@ public class BalanceResponse {
     public void setCurrency(String currency) {
         this.currency = currency;
     }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(LocalDateTime asOf) {
+        this.asOf = asOf;
+    }
 }
@@ -0,0 +1,108 @@
+package com.banking.dto;
+
+import java.util.List;
+
+public class BatchTransactionResponse {
+    private int total;
+    private int created;
+    private int rejected;
+    private List<ItemResult> results;
+
+    public BatchTransactionResponse() {
+    }
+
+    public BatchTransactionResponse(int total, int created, int rejected, List<ItemResult> results) {
+        this.total = total;
+        this.created = created;
+        this.rejected = rejected;
+        this.results = results;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ItemResult> results) {
+        this.results = results;
+    }
+
+    /**
+     * Outcome of one item of the batch, in request order.
+     */
+    public static class ItemResult {
+        public static final String CREATED = "CREATED";
+        public static final String REJECTED = "REJECTED";
+
+        private int index;
+        private String status;
+        private TransactionResponse transaction;
+        private List<ValidationErrorResponse.ValidationError> errors;
+
+        public ItemResult() {
+        }
+
+        public ItemResult(int index, String status, TransactionResponse transaction,
+                          List<ValidationErrorResponse.ValidationError> errors) {
+            this.index = index;
+            this.status = status;
+            this.transaction = transaction;
+            this.errors = errors;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public TransactionResponse getTransaction() {
+            return transaction;
+        }
+
+        public void setTransaction(TransactionResponse transaction) {
+            this.transaction = transaction;
+        }
+
+        public List<ValidationErrorResponse.ValidationError> getErrors() {
+            return errors;
+        }
+
+        public void setErrors(List<ValidationErrorResponse.ValidationError> errors) {
+            this.errors = errors;
+        }
+    }
+}
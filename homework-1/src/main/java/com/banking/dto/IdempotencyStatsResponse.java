@@ -0,0 +1,121 @@
+package com.banking.dto;
+
+public class IdempotencyStatsResponse {
+    private long size;
+    private int maxEntries;
+    private long estimatedBytes;
+    private long maxBytes;
+    private long ttlSeconds;
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long conflicts;
+    private long evictions;
+    private long expirations;
+
+    public IdempotencyStatsResponse() {
+    }
+
+    public IdempotencyStatsResponse(long size, int maxEntries, long estimatedBytes, long maxBytes, long ttlSeconds,
+                                    long hits, long misses, long coalesced, long conflicts, long evictions, long expirations) {
+        this.size = size;
+        this.maxEntries = maxEntries;
+        this.estimatedBytes = estimatedBytes;
+        this.maxBytes = maxBytes;
+        this.ttlSeconds = ttlSeconds;
+        this.hits = hits;
+        this.misses = misses;
+        this.coalesced = coalesced;
+        this.conflicts = conflicts;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public void setEstimatedBytes(long estimatedBytes) {
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public void setCoalesced(long coalesced) {
+        this.coalesced = coalesced;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(long conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public void setExpirations(long expirations) {
+        this.expirations = expirations;
+    }
+}
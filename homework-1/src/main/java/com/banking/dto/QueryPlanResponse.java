@@ -0,0 +1,52 @@
+package com.banking.dto;
+
+import java.util.List;
+
+public class QueryPlanResponse {
+    private String accessPath;
+    private long estimatedRows;
+    private List<String> residualFilters;
+    private boolean parallel;
+
+    public QueryPlanResponse() {
+    }
+
+    public QueryPlanResponse(String accessPath, long estimatedRows, List<String> residualFilters, boolean parallel) {
+        this.accessPath = accessPath;
+        this.estimatedRows = estimatedRows;
+        this.residualFilters = residualFilters;
+        this.parallel = parallel;
+    }
+
+    public String getAccessPath() {
+        return accessPath;
+    }
+
+    public void setAccessPath(String accessPath) {
+        this.accessPath = accessPath;
+    }
+
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public void setEstimatedRows(long estimatedRows) {
+        this.estimatedRows = estimatedRows;
+    }
+
+    public List<String> getResidualFilters() {
+        return residualFilters;
+    }
+
+    public void setResidualFilters(List<String> residualFilters) {
+        this.residualFilters = residualFilters;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+}
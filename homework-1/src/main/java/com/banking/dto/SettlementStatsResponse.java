@@ -0,0 +1,112 @@
+package com.banking.dto;
+
+public class SettlementStatsResponse {
+    private boolean enabled;
+    private int batchSize;
+    private long intervalMillis;
+    private long pending;
+    private long completed;
+    private long failed;
+    private long batches;
+    private long lastRunSettled;
+    private long lastRunMillis;
+    private long lastRunPerSecond;
+
+    public SettlementStatsResponse() {
+    }
+
+    public SettlementStatsResponse(boolean enabled, int batchSize, long intervalMillis, long pending,
+                                   long completed, long failed, long batches,
+                                   long lastRunSettled, long lastRunMillis, long lastRunPerSecond) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+        this.pending = pending;
+        this.completed = completed;
+        this.failed = failed;
+        this.batches = batches;
+        this.lastRunSettled = lastRunSettled;
+        this.lastRunMillis = lastRunMillis;
+        this.lastRunPerSecond = lastRunPerSecond;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public void setPending(long pending) {
+        this.pending = pending;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public void setBatches(long batches) {
+        this.batches = batches;
+    }
+
+    public long getLastRunSettled() {
+        return lastRunSettled;
+    }
+
+    public void setLastRunSettled(long lastRunSettled) {
+        this.lastRunSettled = lastRunSettled;
+    }
+
+    public long getLastRunMillis() {
+        return lastRunMillis;
+    }
+
+    public void setLastRunMillis(long lastRunMillis) {
+        this.lastRunMillis = lastRunMillis;
+    }
+
+    public long getLastRunPerSecond() {
+        return lastRunPerSecond;
+    }
+
+    public void setLastRunPerSecond(long lastRunPerSecond) {
+        this.lastRunPerSecond = lastRunPerSecond;
+    }
+}
@@ -0,0 +1,155 @@
+package com.banking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class StatementResponse {
+    private String accountId;
+    private String granularity;
+    private String currency;
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+    private List<Period> periods;
+
+    public StatementResponse() {
+    }
+
+    public StatementResponse(String accountId, String granularity, String currency, BigDecimal openingBalance,
+                             BigDecimal closingBalance, List<Period> periods) {
+        this.accountId = accountId;
+        this.granularity = granularity;
+        this.currency = currency;
+        this.openingBalance = openingBalance;
+        this.closingBalance = closingBalance;
+        this.periods = periods;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public void setOpeningBalance(BigDecimal openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+
+    public BigDecimal getClosingBalance() {
+        return closingBalance;
+    }
+
+    public void setClosingBalance(BigDecimal closingBalance) {
+        this.closingBalance = closingBalance;
+    }
+
+    public List<Period> getPeriods() {
+        return periods;
+    }
+
+    public void setPeriods(List<Period> periods) {
+        this.periods = periods;
+    }
+
+    public static class Period {
+        private LocalDateTime periodStart;
+        private LocalDateTime periodEnd;
+        private BigDecimal openingBalance;
+        private BigDecimal totalIn;
+        private BigDecimal totalOut;
+        private int transactionCount;
+        private BigDecimal closingBalance;
+
+        public Period() {
+        }
+
+        public Period(LocalDateTime periodStart, LocalDateTime periodEnd, BigDecimal openingBalance,
+                      BigDecimal totalIn, BigDecimal totalOut, int transactionCount, BigDecimal closingBalance) {
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+            this.openingBalance = openingBalance;
+            this.totalIn = totalIn;
+            this.totalOut = totalOut;
+            this.transactionCount = transactionCount;
+            this.closingBalance = closingBalance;
+        }
+
+        public LocalDateTime getPeriodStart() {
+            return periodStart;
+        }
+
+        public void setPeriodStart(LocalDateTime periodStart) {
+            this.periodStart = periodStart;
+        }
+
+        public LocalDateTime getPeriodEnd() {
+            return periodEnd;
+        }
+
+        public void setPeriodEnd(LocalDateTime periodEnd) {
+            this.periodEnd = periodEnd;
+        }
+
+        public BigDecimal getOpeningBalance() {
+            return openingBalance;
+        }
+
+        public void setOpeningBalance(BigDecimal openingBalance) {
+            this.openingBalance = openingBalance;
+        }
+
+        public BigDecimal getTotalIn() {
+            return totalIn;
+        }
+
+        public void setTotalIn(BigDecimal totalIn) {
+            this.totalIn = totalIn;
+        }
+
+        public BigDecimal getTotalOut() {
+            return totalOut;
+        }
+
+        public void setTotalOut(BigDecimal totalOut) {
+            this.totalOut = totalOut;
+        }
+
+        public int getTransactionCount() {
+            return transactionCount;
+        }
+
+        public void setTransactionCount(int transactionCount) {
+            this.transactionCount = transactionCount;
+        }
+
+        public BigDecimal getClosingBalance() {
+            return closingBalance;
+        }
+
+        public void setClosingBalance(BigDecimal closingBalance) {
+            this.closingBalance = closingBalance;
+        }
+    }
+}
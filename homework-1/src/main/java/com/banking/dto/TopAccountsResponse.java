@@ -0,0 +1,104 @@
+package com.banking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class TopAccountsResponse {
+    private String by;
+    private String currency;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+    private List<AccountActivity> accounts;
+
+    public TopAccountsResponse() {
+    }
+
+    public TopAccountsResponse(String by, String currency, LocalDateTime windowStart, LocalDateTime windowEnd,
+                               List<AccountActivity> accounts) {
+        this.by = by;
+        this.currency = currency;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.accounts = accounts;
+    }
+
+    public String getBy() {
+        return by;
+    }
+
+    public void setBy(String by) {
+        this.by = by;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public LocalDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(LocalDateTime windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public LocalDateTime getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(LocalDateTime windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public List<AccountActivity> getAccounts() {
+        return accounts;
+    }
+
+    public void setAccounts(List<AccountActivity> accounts) {
+        this.accounts = accounts;
+    }
+
+    public static class AccountActivity {
+        private String accountId;
+        private BigDecimal value;
+        private BigDecimal maxError;
+
+        public AccountActivity() {
+        }
+
+        public AccountActivity(String accountId, BigDecimal value, BigDecimal maxError) {
+            this.accountId = accountId;
+            this.value = value;
+            this.maxError = maxError;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public void setAccountId(String accountId) {
+            this.accountId = accountId;
+        }
+
+        public BigDecimal getValue() {
+            return value;
+        }
+
+        public void setValue(BigDecimal value) {
+            this.value = value;
+        }
+
+        public BigDecimal getMaxError() {
+            return maxError;
+        }
+
+        public void setMaxError(BigDecimal maxError) {
+            this.maxError = maxError;
+        }
+    }
+}
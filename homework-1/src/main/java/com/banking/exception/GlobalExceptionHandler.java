@@ -1,6 +1,7 @@
 package com.banking.exception;
 
 import com.banking.dto.ValidationErrorResponse;
+import com.banking.repository.SnapshotExpiredException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -37,6 +38,27 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<Object> handleInsufficientFunds(InsufficientFundsException ex) {
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(new ErrorResponse(
+                        "Insufficient funds",
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(SnapshotExpiredException.class)
+    public ResponseEntity<Object> handleSnapshotExpired(SnapshotExpiredException ex) {
+        // The read took longer than a snapshot may stay open; a retry opens a fresh one
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(
+                        "Snapshot expired",
+                        ex.getMessage()
+                ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGlobalException(Exception ex) {
         // Log the full exception for debugging (with stack trace)
@@ -0,0 +1,132 @@
+package com.banking.model;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Fixed-point amount in minor units of a currency, e.g. cents for USD or yen for JPY.
+ * Arithmetic on the minor units is plain {@code long} arithmetic with overflow checks;
+ * {@link BigDecimal} is only produced at the API boundary via {@link #toBigDecimal()}.
+ */
+public final class Money implements Comparable<Money> {
+    /** Scale used when a currency is unknown or unspecified. */
+    public static final int DEFAULT_SCALE = 2;
+
+    private final long minorUnits;
+    private final int scale;
+    private final String currency;
+
+    /**
+     * Creates an amount from minor units.
+     *
+     * @param minorUnits the amount in units of {@code 10^-scale}
+     * @param scale the number of decimal places of the minor units
+     * @param currency the ISO 4217 currency code, or null for an amount not yet tied to a currency
+     */
+    public Money(long minorUnits, int scale, String currency) {
+        if (scale < 0) {
+            throw new IllegalArgumentException("Scale must not be negative");
+        }
+        this.minorUnits = minorUnits;
+        this.scale = scale;
+        this.currency = currency;
+    }
+
+    /**
+     * Converts a decimal amount to minor units at the currency's scale.
+     *
+     * @throws ArithmeticException if the amount has more decimal places than the currency allows
+     *         or does not fit in a long
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        int scale = scaleOf(currency);
+        return new Money(toMinorUnits(amount, scale), scale, currency);
+    }
+
+    /**
+     * Returns the number of decimal places of a currency's minor unit: 0 for JPY or KRW, 2 for most others.
+     *
+     * @param currency the ISO 4217 currency code
+     * @return the scale, or {@link #DEFAULT_SCALE} if the currency is unknown
+     */
+    public static int scaleOf(String currency) {
+        if (currency == null) {
+            return DEFAULT_SCALE;
+        }
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits >= 0 ? digits : DEFAULT_SCALE;
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_SCALE;
+        }
+    }
+
+    /**
+     * Converts a decimal amount to minor units at a scale.
+     *
+     * @throws ArithmeticException if the amount has more decimal places than the scale
+     *         or does not fit in a long
+     */
+    public static long toMinorUnits(BigDecimal amount, int scale) {
+        return amount.movePointRight(scale).longValueExact();
+    }
+
+    /**
+     * Multiplies minor units by {@code 10^(to - from)} to express them at a larger scale.
+     *
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public static long rescale(long minorUnits, int from, int to) {
+        long result = minorUnits;
+        for (int i = from; i < to; i++) {
+            result = Math.multiplyExact(result, 10L);
+        }
+        return result;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    /**
+     * Compares amounts numerically, regardless of scale or currency.
+     */
+    @Override
+    public int compareTo(Money other) {
+        if (scale == other.scale) {
+            return Long.compare(minorUnits, other.minorUnits);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Money money = (Money) o;
+        return minorUnits == money.minorUnits && scale == money.scale && Objects.equals(currency, money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, scale, currency);
+    }
+
+    @Override
+    public String toString() {
+        return currency == null ? toBigDecimal().toPlainString() : toBigDecimal().toPlainString() + " " + currency;
+    }
+}
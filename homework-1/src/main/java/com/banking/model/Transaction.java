@@ -97,6 +97,13 @@ public class Transaction {
         this.status = status;
     }
 
+    /**
+     * Returns a copy of this transaction with another status, leaving this one unchanged.
+     */
+    public Transaction withStatus(TransactionStatus status) {
+        return new Transaction(id, fromAccount, toAccount, amount, currency, type, timestamp, status);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,213 @@
+package com.banking.persistence;
+
+import com.banking.model.Transaction;
+import com.banking.repository.aggregate.AccountAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot files in a directory, named after the number of transactions they hold.
+ *
+ * A snapshot is a header (magic, version, journal position, counts), length-prefixed transaction
+ * and aggregate records, and a CRC32 of everything before it. It is written to a temporary file,
+ * forced to disk and atomically renamed, so a crash mid-write leaves the previous snapshot in place.
+ */
+public class FileSnapshotStore implements SnapshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(FileSnapshotStore.class);
+
+    private static final int MAGIC = 0x4C534E50;
+    private static final int VERSION = 1;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int IO_BUFFER_SIZE = 1 << 20;
+
+    private static final int HAS_CURRENCY = 1;
+    private static final int HAS_MOST_RECENT_DATE = 1 << 1;
+
+    private final Path directory;
+    private final ByteBuffer record = ByteBuffer.allocate(TransactionCodec.MAX_ENCODED_SIZE);
+
+    public FileSnapshotStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public synchronized void write(JournalPosition position, int transactionCount,
+                                   Iterator<Transaction> transactions, Map<String, AccountAggregate> aggregates) {
+        long started = System.nanoTime();
+        Path target = snapshotPath(transactionCount);
+        Path temp = directory.resolve(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(position.getSegment());
+            out.writeInt(position.getOffset());
+            out.writeInt(transactionCount);
+            out.writeInt(aggregates.size());
+
+            for (int i = 0; i < transactionCount; i++) {
+                record.clear();
+                TransactionCodec.encode(transactions.next(), record);
+                writeRecord(out);
+            }
+            for (Map.Entry<String, AccountAggregate> entry : aggregates.entrySet()) {
+                record.clear();
+                TransactionCodec.putString(record, entry.getKey());
+                encodeAggregate(entry.getValue(), record);
+                writeRecord(out);
+            }
+
+            out.flush();
+            new DataOutputStream(Channels.newOutputStream(channel)).writeInt((int) checked.getChecksum().getValue());
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + target, e);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (Path older : listSnapshots()) {
+                if (!older.equals(target)) {
+                    Files.deleteIfExists(older);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to publish snapshot " + target, e);
+        }
+        logger.info("Wrote snapshot of {} transactions and {} accounts at journal position {} in {} ms",
+                transactionCount, aggregates.size(), position, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public synchronized Optional<JournalPosition> load(Consumer<Transaction> transactions,
+                                                       BiConsumer<String, AccountAggregate> aggregates) {
+        List<Path> snapshots;
+        try {
+            snapshots = listSnapshots();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list snapshots in " + directory, e);
+        }
+        if (snapshots.isEmpty()) {
+            return Optional.empty();
+        }
+
+        long started = System.nanoTime();
+        Path latest = snapshots.get(snapshots.size() - 1);
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(latest), IO_BUFFER_SIZE), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalStateException("Unrecognized snapshot format in " + latest);
+            }
+            JournalPosition position = new JournalPosition(in.readLong(), in.readInt());
+            int transactionCount = in.readInt();
+            int aggregateCount = in.readInt();
+
+            for (int i = 0; i < transactionCount; i++) {
+                transactions.accept(TransactionCodec.decode(readRecord(in)));
+            }
+            for (int i = 0; i < aggregateCount; i++) {
+                ByteBuffer buffer = readRecord(in);
+                aggregates.accept(TransactionCodec.getString(buffer), decodeAggregate(buffer));
+            }
+
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) {
+                throw new IllegalStateException("Snapshot " + latest + " is corrupt: checksum mismatch");
+            }
+            logger.info("Loaded snapshot of {} transactions and {} accounts from {} in {} ms",
+                    transactionCount, aggregateCount, latest, (System.nanoTime() - started) / 1_000_000);
+            return Optional.of(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load snapshot " + latest, e);
+        }
+    }
+
+    private void writeRecord(DataOutputStream out) throws IOException {
+        record.flip();
+        out.writeInt(record.remaining());
+        out.write(record.array(), 0, record.remaining());
+    }
+
+    private ByteBuffer readRecord(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > record.capacity()) {
+            throw new IllegalStateException("Snapshot record length out of range: " + length);
+        }
+        record.clear();
+        in.readFully(record.array(), 0, length);
+        record.limit(length);
+        return record;
+    }
+
+    private static void encodeAggregate(AccountAggregate aggregate, ByteBuffer buffer) {
+        int flags = (aggregate.getCurrency() != null ? HAS_CURRENCY : 0) |
+                (aggregate.getMostRecentTransactionDate() != null ? HAS_MOST_RECENT_DATE : 0);
+        buffer.put((byte) flags);
+        if (aggregate.getCurrency() != null) {
+            TransactionCodec.putString(buffer, aggregate.getCurrency());
+        }
+        TransactionCodec.putDecimal(buffer, aggregate.getBalance().toBigDecimal());
+        TransactionCodec.putDecimal(buffer, aggregate.getTotalDeposits().toBigDecimal());
+        TransactionCodec.putDecimal(buffer, aggregate.getTotalWithdrawals().toBigDecimal());
+        buffer.putInt(aggregate.getTransactionCount());
+        if (aggregate.getMostRecentTransactionDate() != null) {
+            TransactionCodec.putTimestamp(buffer, aggregate.getMostRecentTransactionDate());
+        }
+    }
+
+    private static AccountAggregate decodeAggregate(ByteBuffer buffer) {
+        int flags = buffer.get();
+        String currency = (flags & HAS_CURRENCY) != 0 ? TransactionCodec.getString(buffer) : null;
+        return new AccountAggregate(currency,
+                TransactionCodec.getDecimal(buffer),
+                TransactionCodec.getDecimal(buffer),
+                TransactionCodec.getDecimal(buffer),
+                buffer.getInt(),
+                (flags & HAS_MOST_RECENT_DATE) != 0 ? TransactionCodec.getTimestamp(buffer) : null);
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(SNAPSHOT_PREFIX) &&
+                            path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private Path snapshotPath(int transactionCount) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, transactionCount, SNAPSHOT_SUFFIX));
+    }
+}
@@ -0,0 +1,13 @@
+package com.banking.persistence;
+
+/**
+ * When the write-ahead log forces appended records to disk.
+ */
+public enum FsyncPolicy {
+    /** Force after every append (or batch) before it is acknowledged. */
+    ALWAYS,
+    /** Force periodically from a background thread; a crash can lose the last interval. */
+    INTERVAL,
+    /** Leave flushing to the operating system. */
+    NEVER
+}
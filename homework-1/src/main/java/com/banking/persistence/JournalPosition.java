@@ -0,0 +1,52 @@
+package com.banking.persistence;
+
+/**
+ * A point in the journal: the segment and the byte offset within it.
+ * Everything appended before the position precedes it in replay order.
+ */
+public final class JournalPosition implements Comparable<JournalPosition> {
+    public static final JournalPosition START = new JournalPosition(0, 0);
+
+    private final long segment;
+    private final int offset;
+
+    public JournalPosition(long segment, int offset) {
+        if (segment < 0 || offset < 0) {
+            throw new IllegalArgumentException("Journal position must not be negative");
+        }
+        this.segment = segment;
+        this.offset = offset;
+    }
+
+    public long getSegment() {
+        return segment;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public int compareTo(JournalPosition other) {
+        int bySegment = Long.compare(segment, other.segment);
+        return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JournalPosition that = (JournalPosition) o;
+        return segment == that.segment && offset == that.offset;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(segment) * 31 + offset;
+    }
+
+    @Override
+    public String toString() {
+        return segment + ":" + offset;
+    }
+}
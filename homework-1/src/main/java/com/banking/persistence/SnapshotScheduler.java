@@ -0,0 +1,66 @@
+package com.banking.persistence;
+
+import com.banking.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically snapshots the repository in the background so restart time depends on the snapshot
+ * and the journal tail rather than the whole history. A final snapshot is taken on shutdown.
+ */
+@Component
+public class SnapshotScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotScheduler.class);
+
+    private final TransactionRepository repository;
+    private final boolean enabled;
+    private final long intervalSeconds;
+    private ScheduledExecutorService executor;
+
+    public SnapshotScheduler(TransactionRepository repository,
+                             @Value("${banking.persistence.enabled:false}") boolean enabled,
+                             @Value("${banking.persistence.snapshot-interval-seconds:300}") long intervalSeconds) {
+        this.repository = repository;
+        this.enabled = enabled && intervalSeconds > 0;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::snapshot, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        snapshot();
+    }
+
+    private void snapshot() {
+        try {
+            repository.snapshot();
+        } catch (RuntimeException e) {
+            // The journal is only truncated after a snapshot succeeds, so nothing is lost
+            logger.error("Failed to snapshot the ledger", e);
+        }
+    }
+}
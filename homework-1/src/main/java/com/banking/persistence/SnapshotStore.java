@@ -0,0 +1,51 @@
+package com.banking.persistence;
+
+import com.banking.model.Transaction;
+import com.banking.repository.aggregate.AccountAggregate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Point-in-time copies of the repository state, so a restart only replays the journal written after the copy.
+ */
+public interface SnapshotStore {
+
+    /**
+     * Store used when persistence is disabled: keeps nothing and loads nothing.
+     */
+    SnapshotStore NONE = new SnapshotStore() {
+        @Override
+        public void write(JournalPosition position, int transactionCount, Iterator<Transaction> transactions,
+                          Map<String, AccountAggregate> aggregates) {
+        }
+
+        @Override
+        public Optional<JournalPosition> load(Consumer<Transaction> transactions,
+                                              BiConsumer<String, AccountAggregate> aggregates) {
+            return Optional.empty();
+        }
+    };
+
+    /**
+     * Durably writes a snapshot, replacing the previous one only once the new one is complete.
+     *
+     * @param position the journal position the snapshot is consistent with
+     * @param transactionCount the number of transactions the iterator yields
+     * @param transactions every transaction recorded before the position, in log order
+     * @param aggregates the per-account aggregates at the position
+     */
+    void write(JournalPosition position, int transactionCount, Iterator<Transaction> transactions,
+               Map<String, AccountAggregate> aggregates);
+
+    /**
+     * Loads the latest snapshot, if there is one.
+     *
+     * @param transactions receives each transaction, in log order
+     * @param aggregates receives each account's aggregate
+     * @return the journal position to replay from, or empty when there is no snapshot
+     */
+    Optional<JournalPosition> load(Consumer<Transaction> transactions, BiConsumer<String, AccountAggregate> aggregates);
+}
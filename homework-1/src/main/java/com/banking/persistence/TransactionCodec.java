@@ -0,0 +1,137 @@
+package com.banking.persistence;
+
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import com.banking.model.TransactionType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of a {@link Transaction}, shared by the write-ahead log and snapshots.
+ *
+ * Layout: flags byte, id (two longs when it is a UUID, otherwise a string), optional from/to
+ * accounts, amount (scale byte, length byte, two's-complement unscaled value), currency,
+ * type and status ordinals, and the timestamp as UTC epoch seconds plus nanos.
+ * Strings are an unsigned short length followed by UTF-8 bytes.
+ */
+public final class TransactionCodec {
+    /** Upper bound of an encoded transaction, used to size scratch buffers. */
+    public static final int MAX_ENCODED_SIZE = 4 * (2 + 0xFFFF) + 256;
+
+    private static final int HAS_FROM_ACCOUNT = 1;
+    private static final int HAS_TO_ACCOUNT = 1 << 1;
+    private static final int UUID_ID = 1 << 2;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private TransactionCodec() {
+    }
+
+    public static void encode(Transaction transaction, ByteBuffer buffer) {
+        UUID uuid = parseUuid(transaction.getId());
+        int flags = (transaction.getFromAccount() != null ? HAS_FROM_ACCOUNT : 0) |
+                (transaction.getToAccount() != null ? HAS_TO_ACCOUNT : 0) |
+                (uuid != null ? UUID_ID : 0);
+        buffer.put((byte) flags);
+
+        if (uuid != null) {
+            buffer.putLong(uuid.getMostSignificantBits());
+            buffer.putLong(uuid.getLeastSignificantBits());
+        } else {
+            putString(buffer, transaction.getId());
+        }
+        if (transaction.getFromAccount() != null) {
+            putString(buffer, transaction.getFromAccount());
+        }
+        if (transaction.getToAccount() != null) {
+            putString(buffer, transaction.getToAccount());
+        }
+
+        putDecimal(buffer, transaction.getAmount());
+        putString(buffer, transaction.getCurrency());
+        buffer.put((byte) transaction.getType().ordinal());
+        buffer.put((byte) transaction.getStatus().ordinal());
+        putTimestamp(buffer, transaction.getTimestamp());
+    }
+
+    public static Transaction decode(ByteBuffer buffer) {
+        int flags = buffer.get();
+        String id = (flags & UUID_ID) != 0 ?
+                new UUID(buffer.getLong(), buffer.getLong()).toString() : getString(buffer);
+        String fromAccount = (flags & HAS_FROM_ACCOUNT) != 0 ? getString(buffer) : null;
+        String toAccount = (flags & HAS_TO_ACCOUNT) != 0 ? getString(buffer) : null;
+
+        BigDecimal amount = getDecimal(buffer);
+        String currency = getString(buffer);
+        TransactionType type = TYPES[buffer.get()];
+        TransactionStatus status = STATUSES[buffer.get()];
+        LocalDateTime timestamp = getTimestamp(buffer);
+
+        return new Transaction(id, fromAccount, toAccount, amount, currency, type, timestamp, status);
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long to encode");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void putDecimal(ByteBuffer buffer, BigDecimal value) {
+        if (value.scale() < 0) {
+            value = value.setScale(0);
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        if (unscaled.length > Byte.MAX_VALUE || value.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Amount cannot be encoded: " + value);
+        }
+        buffer.put((byte) value.scale());
+        buffer.put((byte) unscaled.length);
+        buffer.put(unscaled);
+    }
+
+    static BigDecimal getDecimal(ByteBuffer buffer) {
+        int scale = buffer.get();
+        byte[] unscaled = new byte[buffer.get()];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    static void putTimestamp(ByteBuffer buffer, LocalDateTime timestamp) {
+        buffer.putLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(timestamp.getNano());
+    }
+
+    static LocalDateTime getTimestamp(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the UUID when the id is in canonical lowercase form, so decoding reproduces it exactly.
+     */
+    private static UUID parseUuid(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
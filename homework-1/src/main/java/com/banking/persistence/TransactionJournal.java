@@ -0,0 +1,100 @@
+package com.banking.persistence;
+
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Durable record of every transaction saved to the repository and of every status change made by settlement.
+ * The repository appends to the journal before applying a write in memory and replays it on startup.
+ */
+public interface TransactionJournal extends AutoCloseable {
+
+    /**
+     * Journal used when persistence is disabled: records nothing and replays nothing.
+     */
+    TransactionJournal NONE = new TransactionJournal() {
+        @Override
+        public void append(List<Transaction> batch) {
+        }
+
+        @Override
+        public void appendStatusChange(int[] positions, TransactionStatus status) {
+        }
+
+        @Override
+        public JournalPosition position() {
+            return JournalPosition.START;
+        }
+
+        @Override
+        public long replay(JournalPosition from, Consumer<Transaction> consumer,
+                           BiConsumer<int[], TransactionStatus> statusChanges) {
+            return 0;
+        }
+
+        @Override
+        public void truncate(JournalPosition before) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Durably records a batch of transactions, honouring the configured fsync policy.
+     *
+     * @param batch the transactions to record, in order
+     */
+    void append(List<Transaction> batch);
+
+    /**
+     * Durably records that transactions already in the journal moved to a new status, honouring the
+     * configured fsync policy.
+     *
+     * @param positions the log positions of the transactions, ascending
+     * @param status their new status
+     */
+    void appendStatusChange(int[] positions, TransactionStatus status);
+
+    /**
+     * Returns the position the next append will be written at.
+     * Callers that need it to line up with their own state must hold the lock that serializes appends.
+     */
+    JournalPosition position();
+
+    /**
+     * Replays every recorded transaction in append order, skipping status changes.
+     *
+     * @param consumer receives each transaction
+     * @return the number of transactions replayed
+     */
+    default long replay(Consumer<Transaction> consumer) {
+        return replay(JournalPosition.START, consumer, (positions, status) -> { });
+    }
+
+    /**
+     * Replays the transactions and status changes recorded at or after a position, in append order.
+     *
+     * @param from the position to start from, usually the one a snapshot was taken at
+     * @param consumer receives each transaction
+     * @param statusChanges receives the log positions and new status of each recorded status change
+     * @return the number of transactions replayed
+     */
+    long replay(JournalPosition from, Consumer<Transaction> consumer,
+                BiConsumer<int[], TransactionStatus> statusChanges);
+
+    /**
+     * Discards whole segments that lie entirely before a position.
+     * Only call this once the state up to that position is durable elsewhere, e.g. in a snapshot.
+     *
+     * @param before the position that replay will start from from now on
+     */
+    void truncate(JournalPosition before);
+
+    @Override
+    void close();
+}
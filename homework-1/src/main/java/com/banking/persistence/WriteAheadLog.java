@@ -0,0 +1,446 @@
+package com.banking.persistence;
+
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of transactions and their status changes stored in fixed-size, memory-mapped segment files.
+ *
+ * Each record is framed as {@code [int length][int crc32][byte recordType][payload]}; a zero length
+ * marks the end of the written part of a segment. The payload is an encoded transaction, or for a status
+ * change the status ordinal, a position count and that many log positions. Appends copy the encoded
+ * record into the mapped segment, so they cost a memory copy plus whatever the {@link FsyncPolicy}
+ * requires. On replay a record with a bad checksum is treated as a torn write: replay stops there and
+ * later appends overwrite it. Status changes refer to transactions by log position, so replay never skips a bad
+ * record to read on: if a segment other than the last ends early, replay stops there too, and that segment and
+ * every later one are copied aside with a {@value #QUARANTINE_SUFFIX} suffix before appends resume at that point.
+ * Segments that lie entirely before a snapshot can be deleted with {@link #truncate}.
+ */
+public class WriteAheadLog implements TransactionJournal {
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    static final byte TRANSACTION_RECORD = 1;
+    static final byte STATUS_RECORD = 2;
+
+    private static final int HEADER_SIZE = 8;
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String QUARANTINE_SUFFIX = ".corrupt";
+    private static final int MAX_RECORD_SIZE = HEADER_SIZE + 1 + TransactionCodec.MAX_ENCODED_SIZE;
+    // Status ordinal and position count, then the positions, within the largest record
+    private static final int MAX_STATUS_POSITIONS =
+            (TransactionCodec.MAX_ENCODED_SIZE - 1 - Integer.BYTES) / Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final CRC32 crc = new CRC32();
+    private final ScheduledExecutorService flusher;
+    // Records of the batch being appended, encoded up front so a failure leaves the log untouched
+    private ByteBuffer batchBuffer = ByteBuffer.allocate(2 * MAX_RECORD_SIZE);
+
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int flushedPosition;
+    private boolean recovered;
+
+    /**
+     * Opens (or creates) a write-ahead log in a directory.
+     * Existing segments are read by {@link #replay(JournalPosition, Consumer, BiConsumer)}, which must
+     * run before the first append.
+     *
+     * @param directory the directory holding the segment files
+     * @param segmentSize the size of each segment file in bytes
+     * @param fsyncPolicy when appended records are forced to disk
+     * @param fsyncIntervalMillis the flush period for {@link FsyncPolicy#INTERVAL}
+     * @throws IOException if the directory cannot be created
+     */
+    public WriteAheadLog(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis)
+            throws IOException {
+        if (segmentSize < MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + MAX_RECORD_SIZE + " bytes");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public synchronized void append(List<Transaction> batch) {
+        ensureRecovered();
+
+        batchBuffer.clear();
+        for (Transaction transaction : batch) {
+            int recordStart = startRecord(TRANSACTION_RECORD);
+            TransactionCodec.encode(transaction, batchBuffer);
+            finishRecord(recordStart);
+        }
+        writeBatch();
+    }
+
+    @Override
+    public synchronized void appendStatusChange(int[] positions, TransactionStatus status) {
+        ensureRecovered();
+
+        batchBuffer.clear();
+        for (int from = 0; from < positions.length; from += MAX_STATUS_POSITIONS) {
+            int to = Math.min(positions.length, from + MAX_STATUS_POSITIONS);
+            int recordStart = startRecord(STATUS_RECORD);
+            batchBuffer.put((byte) status.ordinal());
+            batchBuffer.putInt(to - from);
+            for (int i = from; i < to; i++) {
+                batchBuffer.putInt(positions[i]);
+            }
+            finishRecord(recordStart);
+        }
+        writeBatch();
+    }
+
+    /**
+     * Reserves room for a record header in the batch buffer, growing it if a record of the largest size
+     * might not fit, and writes the record type.
+     *
+     * @return the offset of the record in the batch buffer
+     */
+    private int startRecord(byte recordType) {
+        if (batchBuffer.remaining() < MAX_RECORD_SIZE) {
+            ByteBuffer grown = ByteBuffer.allocate(batchBuffer.capacity() * 2);
+            batchBuffer.flip();
+            grown.put(batchBuffer);
+            batchBuffer = grown;
+        }
+        int recordStart = batchBuffer.position();
+        batchBuffer.position(recordStart + HEADER_SIZE);
+        batchBuffer.put(recordType);
+        return recordStart;
+    }
+
+    /**
+     * Fills in the length and checksum of the record written since {@link #startRecord}.
+     */
+    private void finishRecord(int recordStart) {
+        int length = batchBuffer.position() - recordStart - HEADER_SIZE;
+        crc.reset();
+        crc.update(batchBuffer.array(), recordStart + HEADER_SIZE, length);
+        batchBuffer.putInt(recordStart, length);
+        batchBuffer.putInt(recordStart + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Copies the records encoded in the batch buffer into the mapped segments, rolling to a new segment
+     * whenever the next record does not fit.
+     */
+    private void writeBatch() {
+        batchBuffer.flip();
+
+        int start = segment.position();
+        while (batchBuffer.hasRemaining()) {
+            int recordSize = HEADER_SIZE + batchBuffer.getInt(batchBuffer.position());
+            if (segment.remaining() < recordSize) {
+                // Rolling forces the finished segment unless the policy is NEVER
+                rollSegment();
+                start = 0;
+            }
+            segment.put(batchBuffer.slice(batchBuffer.position(), recordSize));
+            batchBuffer.position(batchBuffer.position() + recordSize);
+        }
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            force(start, segment.position() - start);
+        }
+    }
+
+    @Override
+    public synchronized JournalPosition position() {
+        ensureRecovered();
+        return new JournalPosition(segmentIndex, segment.position());
+    }
+
+    @Override
+    public synchronized long replay(JournalPosition from, Consumer<Transaction> consumer,
+                                    BiConsumer<int[], TransactionStatus> statusChanges) {
+        long started = System.nanoTime();
+        long[] replayed = {0, 0};
+        Consumer<Transaction> counting = transaction -> {
+            consumer.accept(transaction);
+            replayed[0]++;
+        };
+        BiConsumer<int[], TransactionStatus> countingChanges = (positions, status) -> {
+            statusChanges.accept(positions, status);
+            replayed[1] += positions.length;
+        };
+        long bytes = 0;
+        try {
+            List<Path> segments = listSegments();
+            segments.removeIf(path -> segmentNumber(path) < from.getSegment());
+            if (!segments.isEmpty() && segmentNumber(segments.get(0)) > from.getSegment()) {
+                logger.warn("Write-ahead log segments before {} are missing; replaying from {}",
+                        segments.get(0), from);
+            }
+
+            int tail = from.getOffset();
+            for (int i = 0; i < segments.size(); i++) {
+                boolean corrupt;
+                try (FileChannel readChannel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                    int start = segmentNumber(segments.get(i)) == from.getSegment() ? from.getOffset() : 0;
+                    tail = readSegment(buffer, start, counting, countingChanges);
+                    bytes += tail - start;
+                    // A segment is only rolled when the next record does not fit, so one with room left for the
+                    // first record of the next segment, or with data where its end marker should be, was cut short
+                    corrupt = i < segments.size() - 1 &&
+                            (buffer.limit() - tail >= firstRecordSize(segments.get(i + 1)) ||
+                                    tail + Integer.BYTES <= buffer.limit() && buffer.getInt(tail) != 0);
+                }
+                if (corrupt) {
+                    List<Path> later = segments.subList(i + 1, segments.size());
+                    logger.error("Write-ahead log segment {} is corrupt after offset {}; replay stops there and it " +
+                            "and {} later segments are quarantined", segments.get(i), tail, later.size());
+                    quarantine(segments.get(i), true);
+                    for (Path path : later) {
+                        quarantine(path, false);
+                    }
+                    later.clear();
+                    break;
+                }
+            }
+
+            if (segments.isEmpty()) {
+                openSegment(from.getSegment(), from.getOffset(), segmentSize);
+            } else {
+                // Clear the whole rest of the segment: pages written back out of order may have left records past a
+                // torn one, which would otherwise be read again once appends reach them
+                openSegment(segmentNumber(segments.get(segments.size() - 1)), tail, segmentSize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay write-ahead log in " + directory, e);
+        }
+        recovered = true;
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - started);
+        logger.info("Replayed {} transactions and {} status changes ({} bytes) from write-ahead log in {} ms ({} MB/s)",
+                replayed[0], replayed[1], bytes, elapsedNanos / 1_000_000, bytes * 1000 / elapsedNanos);
+        return replayed[0];
+    }
+
+    @Override
+    public synchronized void truncate(JournalPosition before) {
+        try {
+            for (Path path : listSegments()) {
+                long number = segmentNumber(path);
+                if (number < before.getSegment() && number != segmentIndex) {
+                    Files.deleteIfExists(path);
+                    logger.info("Deleted write-ahead log segment {}", path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to truncate write-ahead log in " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the framed size of the first record of a segment, or the largest record size if it has none.
+     */
+    private static int firstRecordSize(Path segmentPath) throws IOException {
+        try (FileChannel readChannel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readChannel.read(length, 0);
+            int recordLength = length.hasRemaining() ? 0 : length.getInt(0);
+            return recordLength > 0 && recordLength <= MAX_RECORD_SIZE - HEADER_SIZE ?
+                    HEADER_SIZE + recordLength : MAX_RECORD_SIZE;
+        }
+    }
+
+    /**
+     * Moves a segment aside under a quarantine name that replay ignores, or copies it when appends resume in it.
+     */
+    private void quarantine(Path segmentPath, boolean copy) throws IOException {
+        Path target = segmentPath.resolveSibling(
+                segmentPath.getFileName() + QUARANTINE_SUFFIX + "-" + System.currentTimeMillis());
+        if (copy) {
+            Files.copy(segmentPath, target);
+        } else {
+            Files.move(segmentPath, target);
+        }
+        logger.warn("Quarantined write-ahead log segment {} as {}", segmentPath, target);
+    }
+
+    private void ensureRecovered() {
+        if (!recovered) {
+            replay(transaction -> { });
+        }
+    }
+
+    /**
+     * Reads records from a segment, starting at an offset, until the end marker or the first invalid record.
+     *
+     * @return the offset just past the last valid record
+     */
+    private int readSegment(ByteBuffer buffer, int offset, Consumer<Transaction> consumer,
+                            BiConsumer<int[], TransactionStatus> statusChanges) {
+        while (buffer.limit() - offset >= HEADER_SIZE) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > buffer.limit() - offset - HEADER_SIZE) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(offset + HEADER_SIZE, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                break;
+            }
+            byte recordType = body.get();
+            if (recordType == TRANSACTION_RECORD) {
+                consumer.accept(TransactionCodec.decode(body));
+            } else if (recordType == STATUS_RECORD) {
+                TransactionStatus status = STATUSES[body.get()];
+                int[] positions = new int[body.getInt()];
+                for (int i = 0; i < positions.length; i++) {
+                    positions[i] = body.getInt();
+                }
+                statusChanges.accept(positions, status);
+            }
+            offset += HEADER_SIZE + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Forces everything appended since the last flush to disk. Runs on the flusher thread
+     * for {@link FsyncPolicy#INTERVAL}; the force itself happens outside the append lock.
+     */
+    void flush() {
+        MappedByteBuffer target;
+        int from;
+        int to;
+        synchronized (this) {
+            if (segment == null || segment.position() == flushedPosition) {
+                return;
+            }
+            target = segment;
+            from = flushedPosition;
+            to = segment.position();
+            flushedPosition = to;
+        }
+        try {
+            target.force(from, to - from);
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush write-ahead log", e);
+        }
+    }
+
+    private void force(int from, int length) {
+        if (length > 0) {
+            segment.force(from, length);
+        }
+        flushedPosition = segment.position();
+    }
+
+    private void rollSegment() {
+        try {
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                segment.force();
+            }
+            channel.close();
+            openSegment(segmentIndex + 1, 0, MAX_RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll write-ahead log segment", e);
+        }
+    }
+
+    /**
+     * Maps a segment for appending at a position, first clearing up to {@code clearLength} bytes from it.
+     */
+    private void openSegment(long index, int position, int clearLength) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        segmentIndex = index;
+        channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        // Clear whatever a torn write left behind so it cannot be mistaken for a record later
+        int tornEnd = (int) Math.min(segmentSize, (long) position + clearLength);
+        int i = position;
+        for (; i + Long.BYTES <= tornEnd; i += Long.BYTES) {
+            if (segment.getLong(i) != 0) {
+                segment.putLong(i, 0);
+            }
+        }
+        for (; i < tornEnd; i++) {
+            if (segment.get(i) != 0) {
+                segment.put(i, (byte) 0);
+            }
+        }
+        segment.position(position);
+        flushedPosition = position;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX) &&
+                            path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentNumber(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        try {
+            if (segment != null && fsyncPolicy != FsyncPolicy.NEVER) {
+                segment.force();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close write-ahead log", e);
+        }
+    }
+}
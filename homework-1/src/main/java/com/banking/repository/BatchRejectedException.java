@@ -0,0 +1,11 @@
+package com.banking.repository;
+
+/**
+ * Thrown when a batch is rejected before any of it is journaled, e.g. because it would overflow an account
+ * total. Nothing was written, so the batch, or part of it, can safely be saved again.
+ */
+public class BatchRejectedException extends RuntimeException {
+    public BatchRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,86 @@
+package com.banking.repository;
+
+/**
+ * Read view of the ledger pinned at a position: it sees exactly the transactions saved before it
+ * was opened, with the statuses they had then, and the account aggregates as they were then, however
+ * many writes and settlements follow.
+ * Opening one costs O(1) and copies nothing, since the log is append-only, aggregates are versioned and
+ * the repository remembers recent settlements for as long as an older snapshot is open.
+ *
+ * A snapshot keeps the aggregate versions and settlements it can see alive, so it should be closed when the
+ * report using it is done, typically with try-with-resources. One that stays open beyond the repository's
+ * maximum age, or pins more settlements than it retains, is expired and released automatically; reads through
+ * it then throw {@link SnapshotExpiredException}.
+ */
+public final class LedgerSnapshot implements AutoCloseable {
+    private final TransactionRepository repository;
+    private final int size;
+    private final long version;
+    private final long openedAtNanos;
+    private boolean closed;
+    // Set by the repository before it drops the history the snapshot needs
+    private volatile boolean expired;
+
+    LedgerSnapshot(TransactionRepository repository, int size, long version, long openedAtNanos) {
+        this.repository = repository;
+        this.size = size;
+        this.version = version;
+        this.openedAtNanos = openedAtNanos;
+    }
+
+    /**
+     * Returns the log position the snapshot is pinned at, i.e. the number of transactions it sees.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ledger version the snapshot is pinned at: the number of appends and settlements it sees.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns whether the transaction at a log position is visible to the snapshot.
+     */
+    public boolean includes(int position) {
+        return position < size;
+    }
+
+    long openedAtNanos() {
+        return openedAtNanos;
+    }
+
+    void expire() {
+        expired = true;
+    }
+
+    /**
+     * Returns whether the snapshot was expired, so reads through it fail.
+     */
+    public boolean isExpired() {
+        return expired;
+    }
+
+    /**
+     * Fails a read made through the snapshot if it was expired. Called after the read, since history is
+     * dropped only once the snapshot is flagged.
+     *
+     * @throws SnapshotExpiredException if the snapshot was expired
+     */
+    void checkNotExpired() {
+        if (expired) {
+            throw new SnapshotExpiredException("Ledger snapshot at version " + version + " expired; open a new one");
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            repository.release(this);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.banking.repository;
+
+/**
+ * Outcome of one settlement batch: how many PENDING transactions completed and how many failed.
+ */
+public final class SettlementResult {
+    private final int completed;
+    private final int failed;
+
+    public SettlementResult(int completed, int failed) {
+        this.completed = completed;
+        this.failed = failed;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+}
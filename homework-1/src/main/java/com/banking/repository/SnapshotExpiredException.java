@@ -0,0 +1,12 @@
+package com.banking.repository;
+
+/**
+ * Thrown when a read goes through a ledger snapshot that was expired for being open too long, or for pinning
+ * too many settlements. The history it needed may already be dropped, so the read fails rather than mixing
+ * in later statuses or totals; opening a new snapshot and reading again succeeds.
+ */
+public class SnapshotExpiredException extends RuntimeException {
+    public SnapshotExpiredException(String message) {
+        super(message);
+    }
+}
@@ -1,31 +1,238 @@
 package com.banking.repository;
 
+import com.banking.model.Money;
 import com.banking.model.Transaction;
 import com.banking.model.TransactionStatus;
 import com.banking.model.TransactionType;
+import com.banking.persistence.JournalPosition;
+import com.banking.persistence.SnapshotStore;
+import com.banking.persistence.TransactionJournal;
+import com.banking.repository.aggregate.AccountAggregate;
+import com.banking.repository.aggregate.AccountRollups;
+import com.banking.repository.aggregate.AggregateVersion;
+import com.banking.repository.aggregate.Granularity;
+import com.banking.repository.aggregate.RollupBucket;
+import com.banking.repository.aggregate.TopAccountsTracker;
+import com.banking.repository.index.AmountIndex;
+import com.banking.repository.index.CodeTable;
+import com.banking.repository.index.IdIndex;
+import com.banking.repository.index.PositionBitmap;
+import com.banking.repository.index.PositionList;
+import com.banking.repository.index.TimeKey;
+import com.banking.repository.storage.StringDictionary;
+import com.banking.repository.storage.TransactionStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Repository for transaction data access.
- * Uses in-memory storage with CopyOnWriteArrayList for thread safety.
- * Initializes with sample seed data on startup.
+ * Rows live in an append-only {@link TransactionStore} (on-heap or off-heap): appends take constant time and
+ * readers iterate a consistent snapshot without locking.
+ * Secondary indexes (id, account, time, amount per currency, type and status bitmaps), per-account aggregates,
+ * per-period rollups and the top accounts sketches are updated under a single write lock after each append;
+ * batches are appended and indexed under one acquisition of that lock.
+ * A {@link LedgerSnapshot} pins the ledger at a version so several reads see one consistent state; aggregates are
+ * versioned so pinned readers still find them as they were, and versions no open snapshot needs are pruned.
+ * Settlement moves PENDING transactions to COMPLETED or FAILED in batches, updating rows, status bitmaps,
+ * aggregates and rollups under one acquisition of the write lock; snapshots opened before a settlement still see
+ * those transactions as PENDING. A snapshot open longer than its maximum age, or pinning more remembered settlements
+ * than the cap, is expired so that history cannot grow without bound behind a leaked one.
+ * Every write and settlement goes to the {@link TransactionJournal} first. On startup the latest snapshot is
+ * loaded, the journal is replayed from the snapshot's position, and sample seed data is added only when the
+ * ledger is empty.
  */
 @Repository
 public class TransactionRepository {
-    private final List<Transaction> transactions = new CopyOnWriteArrayList<>();
+    /** Dictionary code standing for a missing account, e.g. the source of a deposit. */
+    public static final int NO_ACCOUNT = TransactionStore.NO_ACCOUNT;
 
-    public TransactionRepository() {
-        initializeSampleData();
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRepository.class);
+    private static final int REPLAY_CHUNK_SIZE = 4096;
+    private static final long DEFAULT_SNAPSHOT_MAX_AGE_SECONDS = 600;
+    private static final int DEFAULT_MAX_RETAINED_SETTLEMENTS = 1_000_000;
+
+    private final TransactionStore transactions;
+    private final IdIndex idIndex;
+    // Account IDs and currency codes are interned and dictionary-encoded at ingest, with the store's dictionaries
+    private final StringDictionary accountIds;
+    private final StringDictionary currencyCodes;
+    private final CodeTable<PositionList> accountIndex = new CodeTable<>();
+    private final Map<TransactionType, PositionBitmap> typeIndex = new EnumMap<>(TransactionType.class);
+    private final Map<TransactionStatus, PositionBitmap> statusIndex = new EnumMap<>(TransactionStatus.class);
+    // Keys carry the position, so the indexes are sets of primitive-only keys
+    private final NavigableSet<TimeKey> timeIndex = new ConcurrentSkipListSet<>();
+    // The same keys per account, so point-in-time flows scan only the account's own rows
+    private final CodeTable<NavigableSet<TimeKey>> accountTimeIndex = new CodeTable<>();
+    // Keyed by currency code
+    private final CodeTable<AmountIndex> amountIndex = new CodeTable<>();
+    private final CodeTable<AggregateVersion> aggregates = new CodeTable<>();
+    private final CodeTable<AccountRollups> rollups = new CodeTable<>();
+    private final Object writeLock = new Object();
+    private final Object snapshotLock = new Object();
+    // Number of transactions appended plus number settled; aggregate versions and snapshots are keyed by it.
+    // Guarded by the write lock
+    private long ledgerVersion;
+    // Number of IDs in the settlement history; guarded by the write lock
+    private int retainedSettlements;
+    // Ledger versions open ledger snapshots are pinned at, with their counts; guarded by the write lock
+    private final NavigableMap<Long, Integer> pins = new TreeMap<>();
+    // Transactions settled while an older snapshot was open, by ID, with the ledger version of their settlement
+    private final Map<String, Long> recentSettlements = new ConcurrentHashMap<>();
+    // The same IDs by ledger version, so they can be dropped once every open snapshot sees them;
+    // guarded by the write lock
+    private final NavigableMap<Long, List<String>> settlementHistory = new TreeMap<>();
+    // Open snapshots in the order they were opened, which is the order they reach the maximum age in;
+    // guarded by the write lock
+    private final Set<LedgerSnapshot> openSnapshots = new LinkedHashSet<>();
+    private final long snapshotMaxAgeNanos;
+    private final int maxRetainedSettlements;
+    private final TransactionJournal journal;
+    private final SnapshotStore snapshots;
+    private final TopAccountsTracker topAccounts;
+    private JournalPosition lastSnapshotPosition;
+
+    public TransactionRepository(TransactionStore transactions, TransactionJournal journal, SnapshotStore snapshots,
+                                 TopAccountsTracker topAccounts) {
+        this(transactions, journal, snapshots, topAccounts, DEFAULT_SNAPSHOT_MAX_AGE_SECONDS,
+                DEFAULT_MAX_RETAINED_SETTLEMENTS);
+    }
+
+    /**
+     * @param snapshotMaxAgeSeconds how long a ledger snapshot may stay open before it is expired
+     * @param maxRetainedSettlements how many settlements may be remembered for open snapshots before the oldest
+     *                               snapshots are expired
+     */
+    @Autowired
+    public TransactionRepository(TransactionStore transactions, TransactionJournal journal, SnapshotStore snapshots,
+                                 TopAccountsTracker topAccounts,
+                                 @Value("${banking.snapshot.max-age-seconds:600}") long snapshotMaxAgeSeconds,
+                                 @Value("${banking.snapshot.max-retained-settlements:1000000}")
+                                 int maxRetainedSettlements) {
+        if (snapshotMaxAgeSeconds < 1 || maxRetainedSettlements < 0) {
+            throw new IllegalArgumentException(
+                    "Snapshot maximum age must be positive and the settlement cap not negative");
+        }
+        this.snapshotMaxAgeNanos = TimeUnit.SECONDS.toNanos(snapshotMaxAgeSeconds);
+        this.maxRetainedSettlements = maxRetainedSettlements;
+        this.transactions = transactions;
+        this.idIndex = new IdIndex(transactions::hasId);
+        this.accountIds = transactions.dictionaries().accounts();
+        this.currencyCodes = transactions.dictionaries().currencies();
+        this.journal = journal;
+        this.snapshots = snapshots;
+        this.topAccounts = topAccounts;
+        for (TransactionType type : TransactionType.values()) {
+            typeIndex.put(type, new PositionBitmap());
+        }
+        for (TransactionStatus status : TransactionStatus.values()) {
+            statusIndex.put(status, new PositionBitmap());
+        }
+        JournalPosition from = restoreSnapshot();
+        replayJournal(from);
+        if (count() == 0) {
+            initializeSampleData();
+        }
+    }
+
+    /**
+     * Loads the latest snapshot: transactions are indexed, aggregates are taken as stored.
+     *
+     * @return the journal position to replay from
+     */
+    private JournalPosition restoreSnapshot() {
+        List<Transaction> chunk = new ArrayList<>(REPLAY_CHUNK_SIZE);
+        Optional<JournalPosition> position = snapshots.load(transaction -> {
+            chunk.add(transaction);
+            if (chunk.size() == REPLAY_CHUNK_SIZE) {
+                internAll(chunk);
+                applyAll(chunk, Map.of());
+                chunk.clear();
+            }
+        }, (accountId, aggregate) -> aggregates.put(accountIds.encode(accountId),
+                new AggregateVersion(aggregate, 0, null)));
+        internAll(chunk);
+        applyAll(chunk, Map.of());
+        lastSnapshotPosition = position.orElse(null);
+        return position.orElse(JournalPosition.START);
+    }
+
+    /**
+     * Rebuilds the log, indexes and aggregates from the journal, in chunks so each chunk
+     * is indexed under one acquisition of the write lock. Status changes are applied in journal order,
+     * after the transactions before them.
+     */
+    private void replayJournal(JournalPosition from) {
+        List<Transaction> chunk = new ArrayList<>(REPLAY_CHUNK_SIZE);
+        Runnable flush = () -> {
+            internAll(chunk);
+            applyAll(chunk, computeAggregates(chunk));
+            chunk.clear();
+        };
+        journal.replay(from, transaction -> {
+            chunk.add(transaction);
+            if (chunk.size() == REPLAY_CHUNK_SIZE) {
+                flush.run();
+            }
+        }, (positions, status) -> {
+            flush.run();
+            replayStatusChange(positions, status);
+        });
+        flush.run();
+    }
+
+    /**
+     * Writes a snapshot of the current state and truncates the journal segments it covers.
+     * Only the cut (journal position, aggregate map and a ledger snapshot) is taken under the write lock;
+     * the transactions are written from the log prefix, with the statuses they had at the cut, while writes
+     * and settlements continue.
+     *
+     * @return whether a snapshot was written; false when nothing changed since the last one
+     */
+    public boolean snapshot() {
+        synchronized (snapshotLock) {
+            LedgerSnapshot cut;
+            JournalPosition position;
+            Map<String, AccountAggregate> aggregatesAtPosition;
+            synchronized (writeLock) {
+                position = journal.position();
+                if (position.equals(lastSnapshotPosition)) {
+                    return false;
+                }
+                cut = openSnapshot();
+                aggregatesAtPosition = new HashMap<>();
+                for (int code = 0; code < accountIds.size(); code++) {
+                    AggregateVersion version = aggregates.get(code);
+                    if (version != null) {
+                        aggregatesAtPosition.put(accountIds.decode(code), version.getAggregate());
+                    }
+                }
+            }
+            try (cut) {
+                snapshots.write(position, cut.size(), scanAll(cut).iterator(), aggregatesAtPosition);
+            }
+            journal.truncate(position);
+            lastSnapshotPosition = position;
+            return true;
+        }
     }
 
     private void initializeSampleData() {
         // Sample seed data
-        transactions.add(new Transaction(
+        save(new Transaction(
                 UUID.randomUUID().toString(),
                 null,
                 "ACC-12345",
@@ -36,7 +243,7 @@ public class TransactionRepository {
                 TransactionStatus.COMPLETED
         ));
 
-        transactions.add(new Transaction(
+        save(new Transaction(
                 UUID.randomUUID().toString(),
                 "ACC-12345",
                 "ACC-67890",
@@ -47,7 +254,7 @@ public class TransactionRepository {
                 TransactionStatus.COMPLETED
         ));
 
-        transactions.add(new Transaction(
+        save(new Transaction(
                 UUID.randomUUID().toString(),
                 "ACC-12345",
                 null,
@@ -58,7 +265,7 @@ public class TransactionRepository {
                 TransactionStatus.COMPLETED
         ));
 
-        transactions.add(new Transaction(
+        save(new Transaction(
                 UUID.randomUUID().toString(),
                 null,
                 "ACC-67890",
@@ -69,7 +276,7 @@ public class TransactionRepository {
                 TransactionStatus.COMPLETED
         ));
 
-        transactions.add(new Transaction(
+        save(new Transaction(
                 UUID.randomUUID().toString(),
                 "ACC-67890",
                 "ACC-11111",
@@ -80,7 +287,7 @@ public class TransactionRepository {
                 TransactionStatus.COMPLETED
         ));
 
-        transactions.add(new Transaction(
+        save(new Transaction(
                 UUID.randomUUID().toString(),
                 null,
                 "ACC-11111",
@@ -91,7 +298,7 @@ public class TransactionRepository {
                 TransactionStatus.COMPLETED
         ));
 
-        transactions.add(new Transaction(
+        save(new Transaction(
                 UUID.randomUUID().toString(),
                 "ACC-11111",
                 "ACC-12345",
@@ -104,55 +311,894 @@ public class TransactionRepository {
     }
 
     public Transaction save(Transaction transaction) {
-        transactions.add(transaction);
+        saveAll(List.of(transaction));
         return transaction;
     }
 
+    /**
+     * Saves a batch of transactions as a group commit: one lock acquisition, one append to the
+     * log, and one aggregate update per touched account.
+     *
+     * @param batch the transactions to save, in order
+     * @return the saved transactions
+     * @throws BatchRejectedException if the batch would overflow an account total; nothing was written
+     */
+    public List<Transaction> saveAll(List<Transaction> batch) {
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        synchronized (writeLock) {
+            internAll(batch);
+            // Computed first so a batch that would overflow a total is rejected before anything is written
+            Map<Integer, AccountAggregate> updatedAggregates;
+            try {
+                updatedAggregates = computeAggregates(batch);
+            } catch (ArithmeticException e) {
+                throw new BatchRejectedException("Batch would overflow an account total", e);
+            }
+            // Write-ahead: the batch is durable before it becomes visible
+            journal.append(batch);
+            applyAll(batch, updatedAggregates);
+        }
+        return batch;
+    }
+
+    /**
+     * Returns the aggregates of every account the batch touches, with the batch applied.
+     *
+     * @throws ArithmeticException if a total would overflow
+     */
+    private Map<Integer, AccountAggregate> computeAggregates(List<Transaction> batch) {
+        Map<Integer, AccountAggregate> updatedAggregates = new HashMap<>();
+        for (Transaction transaction : batch) {
+            applyToAccount(transaction.getFromAccount(), transaction, updatedAggregates);
+            if (!Objects.equals(transaction.getFromAccount(), transaction.getToAccount())) {
+                applyToAccount(transaction.getToAccount(), transaction, updatedAggregates);
+            }
+        }
+        return updatedAggregates;
+    }
+
+    private void applyToAccount(String accountId, Transaction transaction,
+                                Map<Integer, AccountAggregate> updatedAggregates) {
+        if (accountId != null) {
+            updatedAggregates.compute(accountIds.lookup(accountId), (code, current) ->
+                    (current != null ? current : aggregateOf(code)).apply(transaction, accountId));
+        }
+    }
+
+    /**
+     * Replaces the account IDs and currency of each transaction with the dictionary's canonical
+     * instances, so every row shares one string per distinct value.
+     */
+    private void internAll(List<Transaction> batch) {
+        for (Transaction transaction : batch) {
+            if (transaction.getFromAccount() != null) {
+                transaction.setFromAccount(accountIds.decode(accountIds.encode(transaction.getFromAccount())));
+            }
+            if (transaction.getToAccount() != null) {
+                transaction.setToAccount(accountIds.decode(accountIds.encode(transaction.getToAccount())));
+            }
+            if (transaction.getCurrency() != null) {
+                transaction.setCurrency(currencyCodes.decode(currencyCodes.encode(transaction.getCurrency())));
+            }
+        }
+    }
+
+    /**
+     * Appends and indexes a batch, then publishes its aggregates.
+     *
+     * @param updatedAggregates the aggregates with the batch applied; empty when restoring from a snapshot,
+     *                          whose aggregates already include the batch
+     */
+    private void applyAll(List<Transaction> batch, Map<Integer, AccountAggregate> updatedAggregates) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            int position = transactions.appendAll(batch);
+            for (Transaction transaction : batch) {
+                idIndex.put(transaction.getId(), position);
+                typeIndex.get(transaction.getType()).add(position);
+                statusIndex.get(transaction.getStatus()).add(position);
+                TimeKey timeKey = TimeKey.of(transaction.getTimestamp(), position);
+                timeIndex.add(timeKey);
+                indexAmount(transaction, position);
+                // Encoded by the store on append, with the shared dictionaries
+                int fromCode = transactions.fromAccountCode(position);
+                int toCode = transactions.toAccountCode(position);
+                indexAccount(fromCode, timeKey, position);
+                rollUp(fromCode, transaction.getFromAccount(), transaction);
+                if (toCode != fromCode) {
+                    indexAccount(toCode, timeKey, position);
+                    rollUp(toCode, transaction.getToAccount(), transaction);
+                }
+                position++;
+            }
+            topAccounts.recordAll(batch);
+            ledgerVersion += batch.size();
+            publishAggregates(updatedAggregates, ledgerVersion);
+        }
+    }
+
+    /**
+     * Settles a batch of PENDING transactions: each completes, or fails when {@code rejectOverdrafts} is set and
+     * it would debit more than its source account's balance with the earlier completions of the batch applied,
+     * or when it would overflow an account total. The status changes are journaled, then rows, status bitmaps,
+     * aggregates, rollups and top accounts volumes are updated together under the write lock.
+     *
+     * @param positions candidate log positions, ascending; those that are no longer PENDING are skipped
+     * @param rejectOverdrafts whether a debit the source balance cannot cover fails instead of completing
+     * @return the number of transactions completed and failed
+     */
+    public SettlementResult settleAll(int[] positions, boolean rejectOverdrafts) {
+        synchronized (writeLock) {
+            PositionBitmap pending = statusIndex.get(TransactionStatus.PENDING);
+            int[] completed = new int[positions.length];
+            int[] failed = new int[positions.length];
+            int completedCount = 0;
+            int failedCount = 0;
+            List<Transaction> completedTransactions = new ArrayList<>(positions.length);
+            Map<Integer, AccountAggregate> updatedAggregates = new HashMap<>();
+            for (int position : positions) {
+                if (!pending.contains(position)) {
+                    continue;
+                }
+                Transaction transaction = transactions.get(position).withStatus(TransactionStatus.COMPLETED);
+                if (completeForAccounts(transaction, updatedAggregates, rejectOverdrafts)) {
+                    completed[completedCount++] = position;
+                    completedTransactions.add(transaction);
+                } else {
+                    failed[failedCount++] = position;
+                }
+            }
+            completed = Arrays.copyOf(completed, completedCount);
+            failed = Arrays.copyOf(failed, failedCount);
+
+            // Write-ahead, as for saves
+            if (completedCount > 0) {
+                journal.appendStatusChange(completed, TransactionStatus.COMPLETED);
+            }
+            if (failedCount > 0) {
+                journal.appendStatusChange(failed, TransactionStatus.FAILED);
+            }
+            applySettlement(completed, completedTransactions, failed, updatedAggregates);
+            return new SettlementResult(completedCount, failedCount);
+        }
+    }
+
+    /**
+     * Re-applies a journaled status change. Positions that are no longer PENDING, because the snapshot the replay
+     * started from already has their new status, are skipped.
+     */
+    private void replayStatusChange(int[] positions, TransactionStatus status) {
+        synchronized (writeLock) {
+            int[] changed = Arrays.stream(positions).filter(statusIndex.get(TransactionStatus.PENDING)::contains)
+                    .toArray();
+            if (status == TransactionStatus.COMPLETED) {
+                List<Transaction> completedTransactions = new ArrayList<>(changed.length);
+                Map<Integer, AccountAggregate> updatedAggregates = new HashMap<>();
+                for (int position : changed) {
+                    Transaction transaction = transactions.get(position).withStatus(TransactionStatus.COMPLETED);
+                    completeForAccounts(transaction, updatedAggregates, false);
+                    completedTransactions.add(transaction);
+                }
+                applySettlement(changed, completedTransactions, new int[0], updatedAggregates);
+            } else if (status == TransactionStatus.FAILED) {
+                applySettlement(new int[0], List.of(), changed, Map.of());
+            }
+        }
+    }
+
+    /**
+     * Applies a completing transaction to the aggregates of its accounts in {@code updatedAggregates}.
+     *
+     * @return false, leaving the aggregates unchanged, if the transaction overdraws its source account while
+     *         {@code rejectOverdrafts} is set or would overflow a total
+     */
+    private boolean completeForAccounts(Transaction transaction, Map<Integer, AccountAggregate> updatedAggregates,
+                                        boolean rejectOverdrafts) {
+        String fromAccount = transaction.getFromAccount();
+        String toAccount = transaction.getToAccount();
+        int fromCode = accountCode(fromAccount);
+        int toCode = accountCode(toAccount);
+        AccountAggregate from = fromCode == NO_ACCOUNT ? null : updatedAggregates.get(fromCode);
+        if (fromCode != NO_ACCOUNT && from == null) {
+            from = aggregateOf(fromCode);
+        }
+        if (rejectOverdrafts && from != null && AccountAggregate.isDebit(transaction, fromAccount) &&
+                from.getBalance().toBigDecimal().compareTo(transaction.getAmount()) < 0) {
+            return false;
+        }
+        AccountAggregate to = toCode == NO_ACCOUNT || toCode == fromCode ? null : updatedAggregates.get(toCode);
+        if (toCode != NO_ACCOUNT && toCode != fromCode && to == null) {
+            to = aggregateOf(toCode);
+        }
+        try {
+            from = from == null ? null : from.settle(transaction, fromAccount);
+            to = to == null ? null : to.settle(transaction, toAccount);
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        if (from != null) {
+            updatedAggregates.put(fromCode, from);
+        }
+        if (to != null) {
+            updatedAggregates.put(toCode, to);
+        }
+        return true;
+    }
+
+    /**
+     * Moves settled transactions out of PENDING: rows, status bitmaps, rollups and top accounts volumes,
+     * then publishes the aggregates under a new ledger version.
+     *
+     * @param completed the positions that completed, ascending
+     * @param completedTransactions the transactions at those positions, with their new status
+     * @param failed the positions that failed, ascending
+     * @param updatedAggregates the aggregates with the completions applied
+     */
+    private void applySettlement(int[] completed, List<Transaction> completedTransactions, int[] failed,
+                                 Map<Integer, AccountAggregate> updatedAggregates) {
+        int settled = completed.length + failed.length;
+        if (settled == 0) {
+            return;
+        }
+        long version = ledgerVersion + settled;
+        expireSnapshots();
+        if (!pins.isEmpty()) {
+            // Recorded before any row changes, so an open snapshot that sees a new status also finds it here
+            List<String> ids = new ArrayList<>(settled);
+            for (Transaction transaction : completedTransactions) {
+                ids.add(transaction.getId());
+            }
+            for (int position : failed) {
+                ids.add(transactions.get(position).getId());
+            }
+            for (String id : ids) {
+                recentSettlements.put(id, version);
+            }
+            settlementHistory.put(version, ids);
+            retainedSettlements += ids.size();
+        }
+
+        statusIndex.get(TransactionStatus.COMPLETED).addAll(completed);
+        statusIndex.get(TransactionStatus.FAILED).addAll(failed);
+        statusIndex.get(TransactionStatus.PENDING).removeAll(completed);
+        statusIndex.get(TransactionStatus.PENDING).removeAll(failed);
+        for (int i = 0; i < completed.length; i++) {
+            Transaction transaction = completedTransactions.get(i);
+            transactions.updateStatus(completed[i], TransactionStatus.COMPLETED);
+            int fromCode = transactions.fromAccountCode(completed[i]);
+            int toCode = transactions.toAccountCode(completed[i]);
+            settleRollup(fromCode, transaction.getFromAccount(), transaction);
+            if (toCode != fromCode) {
+                settleRollup(toCode, transaction.getToAccount(), transaction);
+            }
+        }
+        for (int position : failed) {
+            transactions.updateStatus(position, TransactionStatus.FAILED);
+        }
+        topAccounts.recordSettled(completedTransactions);
+        ledgerVersion = version;
+        publishAggregates(updatedAggregates, version);
+    }
+
+    private void settleRollup(int accountCode, String accountId, Transaction transaction) {
+        if (accountCode != NO_ACCOUNT) {
+            rollups.get(accountCode).settle(transaction, accountId);
+        }
+    }
+
+    private void indexAmount(Transaction transaction, int position) {
+        String currency = transaction.getCurrency();
+        if (currency != null && transaction.getAmount() != null) {
+            amountIndex.computeIfAbsent(currencyCodes.lookup(currency), code -> new AmountIndex(Money.scaleOf(currency)))
+                    .add(transaction.getAmount(), position);
+        }
+    }
+
+    /**
+     * Publishes new aggregate versions, keeping older versions only while an open snapshot can see them.
+     */
+    private void publishAggregates(Map<Integer, AccountAggregate> updatedAggregates, long ledgerVersion) {
+        long oldestPin = pins.isEmpty() ? ledgerVersion : pins.firstKey();
+        updatedAggregates.forEach((code, aggregate) -> {
+            AggregateVersion version = new AggregateVersion(aggregate, ledgerVersion, aggregates.get(code));
+            version.prune(oldestPin);
+            aggregates.put(code, version);
+        });
+    }
+
+    /**
+     * Opens a read view pinned at the current ledger version, in constant time and without copying.
+     * Pass it to the query methods for reads that are consistent with each other while writes continue,
+     * and close it when done.
+     */
+    public LedgerSnapshot openSnapshot() {
+        synchronized (writeLock) {
+            expireSnapshots();
+            LedgerSnapshot snapshot = new LedgerSnapshot(this, transactions.size(), ledgerVersion, System.nanoTime());
+            pins.merge(ledgerVersion, 1, Integer::sum);
+            openSnapshots.add(snapshot);
+            return snapshot;
+        }
+    }
+
+    void release(LedgerSnapshot snapshot) {
+        synchronized (writeLock) {
+            // Already unpinned if it was expired
+            if (openSnapshots.remove(snapshot)) {
+                unpin(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Expires the oldest snapshots while one is past the maximum age or the remembered settlements are beyond
+     * the cap. Each is flagged before its history is dropped, so its readers fail instead of seeing later state.
+     * Must be called under the write lock.
+     */
+    private void expireSnapshots() {
+        long now = System.nanoTime();
+        Iterator<LedgerSnapshot> oldest = openSnapshots.iterator();
+        while (oldest.hasNext()) {
+            LedgerSnapshot snapshot = oldest.next();
+            if (now - snapshot.openedAtNanos() < snapshotMaxAgeNanos && retainedSettlements <= maxRetainedSettlements) {
+                return;
+            }
+            logger.warn("Expiring ledger snapshot at version {} open for {} ms with {} settlements remembered",
+                    snapshot.version(), TimeUnit.NANOSECONDS.toMillis(now - snapshot.openedAtNanos()),
+                    retainedSettlements);
+            oldest.remove();
+            snapshot.expire();
+            unpin(snapshot);
+        }
+    }
+
+    private void unpin(LedgerSnapshot snapshot) {
+        pins.computeIfPresent(snapshot.version(), (version, count) -> count > 1 ? count - 1 : null);
+        // Settlements every remaining snapshot sees no longer need to be remembered
+        NavigableMap<Long, List<String>> seenByAll = pins.isEmpty() ? settlementHistory :
+                settlementHistory.headMap(pins.firstKey(), true);
+        for (List<String> ids : seenByAll.values()) {
+            ids.forEach(recentSettlements::remove);
+            retainedSettlements -= ids.size();
+        }
+        seenByAll.clear();
+    }
+
+    /**
+     * Returns a transaction as a snapshot sees it: still PENDING if it was settled after the snapshot was opened.
+     */
+    private Transaction asSeenBy(Transaction transaction, LedgerSnapshot snapshot) {
+        if (snapshot == null) {
+            return transaction;
+        }
+        Long settledAt = recentSettlements.isEmpty() ? null : recentSettlements.get(transaction.getId());
+        snapshot.checkNotExpired();
+        return settledAt != null && settledAt > snapshot.version() ?
+                transaction.withStatus(TransactionStatus.PENDING) : transaction;
+    }
+
+    private static int visibleSize(LedgerSnapshot snapshot) {
+        return snapshot != null ? snapshot.size() : Integer.MAX_VALUE;
+    }
+
+    private void indexAccount(int accountCode, TimeKey timeKey, int position) {
+        if (accountCode != NO_ACCOUNT) {
+            accountIndex.computeIfAbsent(accountCode, code -> new PositionList()).add(position);
+            accountTimeIndex.computeIfAbsent(accountCode, code -> new ConcurrentSkipListSet<>()).add(timeKey);
+        }
+    }
+
+    private void rollUp(int accountCode, String accountId, Transaction transaction) {
+        if (accountCode != NO_ACCOUNT) {
+            rollups.computeIfAbsent(accountCode, code -> new AccountRollups()).apply(transaction, accountId);
+        }
+    }
+
+    /**
+     * Returns the dictionary code of an account ID.
+     *
+     * @param accountId the account ID
+     * @return its code, or {@link #NO_ACCOUNT} if no transaction has referenced the account
+     */
+    public int accountCode(String accountId) {
+        return accountId == null ? NO_ACCOUNT : accountIds.lookup(accountId);
+    }
+
+    /**
+     * Returns whether the transaction at a position has the account as source or destination,
+     * comparing dictionary codes instead of strings.
+     */
+    public boolean involvesAccount(int position, int accountCode) {
+        return transactions.fromAccountCode(position) == accountCode ||
+                transactions.toAccountCode(position) == accountCode;
+    }
+
+    private AccountAggregate aggregateOf(int accountCode) {
+        AggregateVersion version = aggregates.get(accountCode);
+        return version != null ? version.getAggregate() : AccountAggregate.EMPTY;
+    }
+
+    /**
+     * Returns the running totals for an account in constant time.
+     *
+     * @param accountId the account ID
+     * @return the account's aggregate, or {@link AccountAggregate#EMPTY} if it has no transactions
+     */
+    public AccountAggregate findAccountAggregate(String accountId) {
+        return aggregateOf(accountCode(accountId));
+    }
+
+    /**
+     * Returns an account's running totals as a snapshot sees them.
+     *
+     * @param accountId the account ID
+     * @param snapshot the read view, or null for the current totals
+     * @return the account's aggregate, or {@link AccountAggregate#EMPTY} if it had no transactions
+     */
+    public AccountAggregate findAccountAggregate(String accountId, LedgerSnapshot snapshot) {
+        if (snapshot == null) {
+            return findAccountAggregate(accountId);
+        }
+        AggregateVersion version = aggregates.get(accountCode(accountId));
+        AccountAggregate aggregate = version != null ? version.asOf(snapshot.version()) : AccountAggregate.EMPTY;
+        snapshot.checkNotExpired();
+        return aggregate;
+    }
+
+    /**
+     * Returns the per-period flows of an account, maintained incrementally with every save.
+     *
+     * @param accountId the account ID
+     * @return the account's rollups, or empty if it has no transactions
+     */
+    public Optional<AccountRollups> findAccountRollups(String accountId) {
+        return Optional.ofNullable(rollups.get(accountCode(accountId)));
+    }
+
+    /**
+     * Returns the combined flows of an account's transactions up to and including an instant: the rollup
+     * checkpoint before the instant's hour, then a scan of the account's own time index over the rest of that hour,
+     * so the cost does not depend on how busy other accounts were in that hour.
+     *
+     * @param accountId the account ID
+     * @param asOf the instant, inclusive
+     * @return the flows, whose net is the account's balance at {@code asOf}
+     */
+    public RollupBucket findAccountFlowsAsOf(String accountId, LocalDateTime asOf) {
+        int accountCode = accountCode(accountId);
+        AccountRollups accountRollups = rollups.get(accountCode);
+        NavigableSet<TimeKey> accountTimes = accountTimeIndex.get(accountCode);
+        if (accountRollups == null || accountTimes == null) {
+            return RollupBucket.EMPTY;
+        }
+        LocalDateTime hourStart = Granularity.HOUR.truncate(asOf);
+        RollupBucket flows = accountRollups.flowsBefore(hourStart);
+        for (TimeKey key : accountTimes.subSet(TimeKey.lowerBound(hourStart), true, TimeKey.upperBound(asOf), true)) {
+            flows = flows.apply(transactions.get(key.getPosition()), accountId);
+        }
+        return flows;
+    }
+
+    /**
+     * Returns the tracker of the most active accounts over recent windows.
+     */
+    public TopAccountsTracker topAccounts() {
+        return topAccounts;
+    }
+
+    /**
+     * Finds a transaction by ID using the hash index, in constant time.
+     *
+     * @param id the transaction ID
+     * @return the transaction, if present
+     */
     public Optional<Transaction> findById(String id) {
-        return transactions.stream()
-                .filter(t -> t.getId().equals(id))
-                .findFirst();
+        return findById(id, null);
+    }
+
+    /**
+     * Finds a transaction by ID as a snapshot sees it.
+     *
+     * @param id the transaction ID
+     * @param snapshot the read view, or null for the latest state
+     * @return the transaction, if present and visible
+     */
+    public Optional<Transaction> findById(String id, LedgerSnapshot snapshot) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        int position = idIndex.get(id);
+        return position < 0 || position >= visibleSize(snapshot) ?
+                Optional.empty() : Optional.of(getAt(position, snapshot));
+    }
+
+    /**
+     * Returns the time index key of a saved transaction, e.g. to resume paging after it.
+     *
+     * @param transaction a transaction read from the repository
+     * @return its key, of its timestamp and log position
+     * @throws IllegalArgumentException if the transaction was not saved
+     */
+    public TimeKey timeKeyOf(Transaction transaction) {
+        int position = idIndex.get(transaction.getId());
+        if (position < 0) {
+            throw new IllegalArgumentException("Transaction " + transaction.getId() + " is not saved");
+        }
+        return TimeKey.of(transaction.getTimestamp(), position);
     }
 
+    /**
+     * Returns every transaction in log order as a read-only view of the log, without copying it.
+     * The view is fixed at the current log size.
+     */
     public List<Transaction> findAll() {
-        return new ArrayList<>(transactions);
+        return new LogView(transactions::get, transactions.size());
+    }
+
+    /**
+     * Returns every transaction a snapshot sees, in log order, as a read-only view of the log.
+     *
+     * @param snapshot the read view, or null for the current log
+     */
+    public List<Transaction> findAll(LedgerSnapshot snapshot) {
+        return snapshot == null ? findAll() :
+                new LogView(position -> getAt(position, snapshot), snapshot.size());
     }
 
     /**
      * Finds all transactions associated with an account (as either source or destination).
+     * Served from the per-account index, so the cost is proportional to the account's own history.
      *
      * @param accountId the account ID to search for
      * @return list of matching transactions
      */
     public List<Transaction> findByAccountId(String accountId) {
-        return transactions.stream()
-                .filter(t -> (t.getFromAccount() != null && t.getFromAccount().equals(accountId)) ||
-                           (t.getToAccount() != null && t.getToAccount().equals(accountId)))
+        return findByAccountId(accountId, null);
+    }
+
+    /**
+     * Finds the transactions of an account a snapshot sees, in log order.
+     *
+     * @param accountId the account ID to search for
+     * @param snapshot the read view, or null for the latest state
+     * @return list of matching transactions
+     */
+    public List<Transaction> findByAccountId(String accountId, LedgerSnapshot snapshot) {
+        return positionsByAccountId(accountId, snapshot).mapToObj(position -> getAt(position, snapshot))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Finds all transactions of a specific type.
+     * Finds all transactions of a specific type using the per-type bitmap.
      *
      * @param type the transaction type to filter by
      * @return list of matching transactions
      */
     public List<Transaction> findByType(TransactionType type) {
-        return transactions.stream()
-                .filter(t -> t.getType() == type)
-                .collect(Collectors.toList());
+        return streamByType(type).collect(Collectors.toList());
     }
 
     /**
-     * Finds all transactions within a date range (inclusive).
+     * Finds all transactions within a date range (inclusive), ordered by timestamp.
+     * Seeks straight to the window in the time index, so the cost is proportional to the
+     * number of results.
      *
      * @param from start date/time
      * @param to end date/time
      * @return list of matching transactions
      */
     public List<Transaction> findByDateRange(LocalDateTime from, LocalDateTime to) {
-        return transactions.stream()
-                .filter(t -> !t.getTimestamp().isBefore(from) && !t.getTimestamp().isAfter(to))
-                .collect(Collectors.toList());
+        return streamByDateRange(from, to).collect(Collectors.toList());
+    }
+
+    public int count() {
+        return transactions.size();
+    }
+
+    public int countByAccountId(String accountId) {
+        return countByAccountId(accountId, null);
+    }
+
+    public int countByAccountId(String accountId, LedgerSnapshot snapshot) {
+        PositionList positions = accountIndex.get(accountCode(accountId));
+        if (positions == null) {
+            return 0;
+        }
+        return snapshot == null ? positions.size() : positions.countBelow(snapshot.size());
+    }
+
+    public int countByType(TransactionType type) {
+        return countByType(type, null);
+    }
+
+    public int countByType(TransactionType type, LedgerSnapshot snapshot) {
+        PositionBitmap positions = typeIndex.get(type);
+        return snapshot == null ? positions.cardinality() : positions.cardinalityBelow(snapshot.size());
+    }
+
+    /**
+     * Returns the bitmap of log positions holding transactions of a type, for combining with other criteria.
+     * The bitmap is live: it keeps growing as transactions are saved.
+     */
+    public PositionBitmap typeBitmap(TransactionType type) {
+        return typeIndex.get(type);
+    }
+
+    /**
+     * Returns the bitmap of log positions holding transactions with a status, for combining with other criteria.
+     * The bitmap is live: it keeps growing as transactions are saved.
+     */
+    public PositionBitmap statusBitmap(TransactionStatus status) {
+        return statusIndex.get(status);
+    }
+
+    /**
+     * Counts transactions within a date range, stopping once {@code limit} is reached.
+     * The cost is bounded by the limit, which lets the query planner compare the window
+     * against cheaper access paths without walking all of it.
+     *
+     * @param from start date/time
+     * @param to end date/time
+     * @param limit the maximum count of interest
+     * @return the number of transactions in the range, capped at {@code limit}
+     */
+    public long countByDateRange(LocalDateTime from, LocalDateTime to, long limit) {
+        if (from.isAfter(to)) {
+            return 0;
+        }
+        long count = 0;
+        Iterator<TimeKey> keys = timeIndex.subSet(TimeKey.lowerBound(from), true, TimeKey.upperBound(to), true)
+                .iterator();
+        while (count < limit && keys.hasNext()) {
+            keys.next();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Counts transactions with an amount in a range from the per-currency amount index, stopping at a limit
+     * like {@link #countByDateRange}.
+     *
+     * @param currency the currency, or null for every currency
+     * @param min the inclusive lower bound, or null if open
+     * @param max the inclusive upper bound, or null if open
+     * @param limit the maximum count of interest
+     * @return the number of matching transactions, capped at {@code limit}
+     */
+    public long countByAmount(String currency, BigDecimal min, BigDecimal max, long limit) {
+        long count = 0;
+        for (AmountIndex index : amountIndexes(currency)) {
+            count += index.count(min, max, limit - count);
+        }
+        return count;
+    }
+
+    /**
+     * Streams the log positions of transactions with an amount in a range that a snapshot sees, in ascending
+     * amount order within each currency. Amounts are compared in their own currency.
+     *
+     * @param currency the currency, or null for every currency
+     * @param min the inclusive lower bound, or null if open
+     * @param max the inclusive upper bound, or null if open
+     * @param snapshot the read view, or null for the latest state
+     * @return the matching positions
+     */
+    public IntStream positionsByAmount(String currency, BigDecimal min, BigDecimal max, LedgerSnapshot snapshot) {
+        IntStream positions = amountIndexes(currency).stream()
+                .flatMapToInt(index -> index.positions(min, max));
+        return snapshot == null ? positions : positions.filter(snapshot::includes);
+    }
+
+    private List<AmountIndex> amountIndexes(String currency) {
+        if (currency != null) {
+            AmountIndex index = amountIndex.get(currencyCodes.lookup(currency));
+            return index != null ? List.of(index) : List.of();
+        }
+        List<AmountIndex> indexes = new ArrayList<>();
+        for (int code = 0; code < currencyCodes.size(); code++) {
+            AmountIndex index = amountIndex.get(code);
+            if (index != null) {
+                indexes.add(index);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Streams every transaction in log order without copying the log.
+     */
+    public Stream<Transaction> streamAll() {
+        return transactions.stream();
+    }
+
+    /**
+     * Streams every transaction a snapshot sees, in log order, straight from the storage segments.
+     * The stream is sequential; made parallel, it splits along segment boundaries.
+     */
+    public Stream<Transaction> scanAll(LedgerSnapshot snapshot) {
+        int end = Math.min(transactions.size(), visibleSize(snapshot));
+        Stream<Transaction> rows = StreamSupport.stream(transactions.spliterator(0, end), false);
+        return snapshot == null ? rows : rows.map(transaction -> asSeenBy(transaction, snapshot));
+    }
+
+    /**
+     * Streams an account's transactions in log order from the per-account index.
+     */
+    public Stream<Transaction> streamByAccountId(String accountId) {
+        return positionsByAccountId(accountId).mapToObj(transactions::get);
+    }
+
+    /**
+     * Streams transactions of a type in log order from the per-type bitmap.
+     */
+    public Stream<Transaction> streamByType(TransactionType type) {
+        return positionsByType(type).mapToObj(transactions::get);
+    }
+
+    /**
+     * Streams transactions within a date range (inclusive) in timestamp order from the time index.
+     */
+    public Stream<Transaction> streamByDateRange(LocalDateTime from, LocalDateTime to) {
+        return positionsByDateRange(from, to, null).mapToObj(transactions::get);
+    }
+
+    /**
+     * Returns the transaction at a log position.
+     */
+    public Transaction getAt(int position) {
+        return transactions.get(position);
+    }
+
+    /**
+     * Returns the transaction at a log position as a snapshot sees it.
+     *
+     * @param snapshot the read view, or null for the latest state
+     */
+    public Transaction getAt(int position, LedgerSnapshot snapshot) {
+        return asSeenBy(transactions.get(position), snapshot);
+    }
+
+    /**
+     * Streams every published log position in order.
+     */
+    public IntStream positionsAll() {
+        return positionsAll(null);
+    }
+
+    /**
+     * Streams every log position a snapshot sees, in order.
+     */
+    public IntStream positionsAll(LedgerSnapshot snapshot) {
+        return IntStream.range(0, Math.min(transactions.size(), visibleSize(snapshot)));
+    }
+
+    /**
+     * Streams the log positions of an account's transactions in log order.
+     */
+    public IntStream positionsByAccountId(String accountId) {
+        return positionsByAccountId(accountId, null);
+    }
+
+    /**
+     * Streams the log positions of an account's transactions a snapshot sees, in log order.
+     */
+    public IntStream positionsByAccountId(String accountId, LedgerSnapshot snapshot) {
+        PositionList positions = accountIndex.get(accountCode(accountId));
+        if (positions == null) {
+            return IntStream.empty();
+        }
+        return snapshot == null ? positions.stream() : positions.streamBelow(snapshot.size());
+    }
+
+    /**
+     * Streams the log positions of transactions of a type in log order.
+     */
+    public IntStream positionsByType(TransactionType type) {
+        return positionsByType(type, null);
+    }
+
+    /**
+     * Streams the log positions of transactions of a type a snapshot sees, in log order.
+     */
+    public IntStream positionsByType(TransactionType type, LedgerSnapshot snapshot) {
+        PositionBitmap positions = typeIndex.get(type);
+        return snapshot == null ? positions.stream() : positions.streamBelow(snapshot.size());
+    }
+
+    /**
+     * Streams the log positions of transactions within a date range (inclusive) in (timestamp, position) order,
+     * starting strictly after a key. Seeking to the key costs O(log n), so deep pages cost the same as the first.
+     *
+     * @param from start date/time
+     * @param to end date/time
+     * @param after the key to resume after, or {@code null} to start at {@code from}
+     * @return the matching positions in key order
+     */
+    public IntStream positionsByDateRange(LocalDateTime from, LocalDateTime to, TimeKey after) {
+        return positionsByDateRange(from, to, after, null);
+    }
+
+    /**
+     * Streams the log positions of transactions within a date range that a snapshot sees, in (timestamp, position)
+     * order, starting strictly after a key. Positions saved after the snapshot are skipped.
+     *
+     * @param from start date/time
+     * @param to end date/time
+     * @param after the key to resume after, or {@code null} to start at {@code from}
+     * @param snapshot the read view, or null for the latest state
+     * @return the matching positions in key order
+     */
+    public IntStream positionsByDateRange(LocalDateTime from, LocalDateTime to, TimeKey after,
+                                          LedgerSnapshot snapshot) {
+        return positionsInWindow(timeIndex, from, to, after, snapshot);
+    }
+
+    /**
+     * Streams the log positions of an account's transactions within a date range that a snapshot sees, in
+     * (timestamp, position) order, starting strictly after a key. Seeks in the account's own time index, so a page
+     * costs the same at any depth however busy the account is.
+     *
+     * @param accountId the account ID
+     * @param from start date/time
+     * @param to end date/time
+     * @param after the key to resume after, or {@code null} to start at {@code from}
+     * @param snapshot the read view, or null for the latest state
+     * @return the matching positions in key order
+     */
+    public IntStream positionsByAccountId(String accountId, LocalDateTime from, LocalDateTime to, TimeKey after,
+                                          LedgerSnapshot snapshot) {
+        NavigableSet<TimeKey> accountTimes = accountTimeIndex.get(accountCode(accountId));
+        if (accountTimes == null) {
+            return IntStream.empty();
+        }
+        return positionsInWindow(accountTimes, from, to, after, snapshot);
+    }
+
+    private static IntStream positionsInWindow(NavigableSet<TimeKey> index, LocalDateTime from,
+                                               LocalDateTime to, TimeKey after, LedgerSnapshot snapshot) {
+        if (from.isAfter(to)) {
+            return IntStream.empty();
+        }
+        TimeKey lower = TimeKey.lowerBound(from);
+        TimeKey upper = TimeKey.upperBound(to);
+        NavigableSet<TimeKey> window;
+        if (after == null || after.compareTo(lower) < 0) {
+            window = index.subSet(lower, true, upper, true);
+        } else if (after.compareTo(upper) < 0) {
+            window = index.subSet(after, false, upper, true);
+        } else {
+            return IntStream.empty();
+        }
+        IntStream positions = window.stream().mapToInt(TimeKey::getPosition);
+        return snapshot == null ? positions : positions.filter(snapshot::includes);
+    }
+
+    /**
+     * Read-only list over a prefix of the log; rows are fetched on access.
+     */
+    private static final class LogView extends AbstractList<Transaction> implements RandomAccess {
+        private final IntFunction<Transaction> rows;
+        private final int size;
+
+        private LogView(IntFunction<Transaction> rows, int size) {
+            this.rows = rows;
+            this.size = size;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            Objects.checkIndex(index, size);
+            return rows.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
     }
 }
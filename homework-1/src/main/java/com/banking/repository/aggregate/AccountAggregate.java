@@ -0,0 +1,163 @@
+package com.banking.repository.aggregate;
+
+import com.banking.model.Money;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import com.banking.model.TransactionType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable running totals for one account, maintained incrementally as transactions are saved.
+ * Balance, deposits, withdrawals, currency and most recent date only reflect COMPLETED transactions;
+ * the transaction count covers every transaction that references the account.
+ *
+ * Totals are kept as {@code long} minor units at the aggregate's scale, which is the currency's scale
+ * unless an amount with more decimal places forced it up. Applying a transaction is long arithmetic
+ * with overflow checks; {@link Money} values are only created by the getters.
+ */
+public final class AccountAggregate {
+    public static final AccountAggregate EMPTY = new AccountAggregate(null, 0, 0, 0, 0, 0, null);
+
+    private final String currency;
+    private final int scale;
+    private final long balance;
+    private final long totalDeposits;
+    private final long totalWithdrawals;
+    private final int transactionCount;
+    private final LocalDateTime mostRecentTransactionDate;
+
+    /**
+     * Creates an aggregate from decimal totals, e.g. when restoring or recomputing it.
+     *
+     * @throws ArithmeticException if a total does not fit in long minor units
+     */
+    public AccountAggregate(String currency, BigDecimal balance, BigDecimal totalDeposits,
+                            BigDecimal totalWithdrawals, int transactionCount,
+                            LocalDateTime mostRecentTransactionDate) {
+        this.currency = currency;
+        this.scale = Math.max(currency != null ? Money.scaleOf(currency) : 0,
+                Math.max(decimalPlaces(balance), Math.max(decimalPlaces(totalDeposits), decimalPlaces(totalWithdrawals))));
+        this.balance = Money.toMinorUnits(balance, scale);
+        this.totalDeposits = Money.toMinorUnits(totalDeposits, scale);
+        this.totalWithdrawals = Money.toMinorUnits(totalWithdrawals, scale);
+        this.transactionCount = transactionCount;
+        this.mostRecentTransactionDate = mostRecentTransactionDate;
+    }
+
+    private AccountAggregate(String currency, int scale, long balance, long totalDeposits, long totalWithdrawals,
+                             int transactionCount, LocalDateTime mostRecentTransactionDate) {
+        this.currency = currency;
+        this.scale = scale;
+        this.balance = balance;
+        this.totalDeposits = totalDeposits;
+        this.totalWithdrawals = totalWithdrawals;
+        this.transactionCount = transactionCount;
+        this.mostRecentTransactionDate = mostRecentTransactionDate;
+    }
+
+    /**
+     * Returns the aggregate that results from applying a transaction to this account.
+     *
+     * @param transaction the transaction referencing the account
+     * @param accountId the account this aggregate belongs to
+     * @return the updated aggregate
+     * @throws ArithmeticException if a total would overflow
+     */
+    public AccountAggregate apply(Transaction transaction, String accountId) {
+        return apply(transaction, accountId, transactionCount + 1);
+    }
+
+    /**
+     * Returns the aggregate that results from a transaction that was applied while PENDING completing:
+     * its amount is applied now, and it is not counted again.
+     *
+     * @param transaction the transaction referencing the account, with its new status
+     * @param accountId the account this aggregate belongs to
+     * @return the updated aggregate
+     * @throws ArithmeticException if a total would overflow
+     */
+    public AccountAggregate settle(Transaction transaction, String accountId) {
+        return apply(transaction, accountId, transactionCount);
+    }
+
+    private AccountAggregate apply(Transaction transaction, String accountId, int count) {
+        if (transaction.getStatus() != TransactionStatus.COMPLETED) {
+            return new AccountAggregate(currency, scale, balance, totalDeposits, totalWithdrawals, count,
+                    mostRecentTransactionDate);
+        }
+
+        String newCurrency = currency != null ? currency : transaction.getCurrency();
+        int newScale = scale;
+        if (currency == null) {
+            newScale = Math.max(newScale, Money.scaleOf(newCurrency));
+        }
+        BigDecimal amount = transaction.getAmount();
+        if (amount.scale() > newScale) {
+            newScale = Math.max(newScale, decimalPlaces(amount));
+        }
+
+        long newBalance = Money.rescale(balance, scale, newScale);
+        long newDeposits = Money.rescale(totalDeposits, scale, newScale);
+        long newWithdrawals = Money.rescale(totalWithdrawals, scale, newScale);
+        if (isCredit(transaction, accountId)) {
+            long minorUnits = Money.toMinorUnits(amount, newScale);
+            newBalance = Math.addExact(newBalance, minorUnits);
+            newDeposits = Math.addExact(newDeposits, minorUnits);
+        } else if (isDebit(transaction, accountId)) {
+            long minorUnits = Money.toMinorUnits(amount, newScale);
+            newBalance = Math.subtractExact(newBalance, minorUnits);
+            newWithdrawals = Math.addExact(newWithdrawals, minorUnits);
+        }
+
+        LocalDateTime mostRecent = mostRecentTransactionDate == null ||
+                transaction.getTimestamp().isAfter(mostRecentTransactionDate) ?
+                transaction.getTimestamp() : mostRecentTransactionDate;
+
+        return new AccountAggregate(newCurrency, newScale, newBalance, newDeposits, newWithdrawals, count, mostRecent);
+    }
+
+    /**
+     * Returns whether a transaction adds funds to the account.
+     */
+    public static boolean isCredit(Transaction transaction, String accountId) {
+        return transaction.getType() == TransactionType.DEPOSIT ||
+                (transaction.getType() == TransactionType.TRANSFER && accountId.equals(transaction.getToAccount()));
+    }
+
+    /**
+     * Returns whether a transaction removes funds from the account.
+     */
+    public static boolean isDebit(Transaction transaction, String accountId) {
+        return transaction.getType() == TransactionType.WITHDRAWAL ||
+                (transaction.getType() == TransactionType.TRANSFER && accountId.equals(transaction.getFromAccount()));
+    }
+
+    private static int decimalPlaces(BigDecimal value) {
+        return Math.max(0, value.stripTrailingZeros().scale());
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public Money getBalance() {
+        return new Money(balance, scale, currency);
+    }
+
+    public Money getTotalDeposits() {
+        return new Money(totalDeposits, scale, currency);
+    }
+
+    public Money getTotalWithdrawals() {
+        return new Money(totalWithdrawals, scale, currency);
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public LocalDateTime getMostRecentTransactionDate() {
+        return mostRecentTransactionDate;
+    }
+}
@@ -0,0 +1,185 @@
+package com.banking.repository.aggregate;
+
+import com.banking.model.Transaction;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-period flows of one account at every {@link Granularity}, keyed by period start and maintained
+ * incrementally as transactions are saved, plus a checkpoint of the cumulative flows at the end of every
+ * day with transactions. Balances before any instant come from the latest checkpoint before its day and
+ * at most 24 hour buckets (see {@link #flowsBefore(LocalDateTime)}), so historical lookups are logarithmic
+ * in the length of the history.
+ *
+ * The checkpoints are an immutable array published through one volatile reference, so a reader sees every
+ * checkpoint either before or after a transaction, never some of each. A transaction on the latest day
+ * replaces only that day's total and one on a new day appends, both in constant time; only a backdated one
+ * copies the array, with the later checkpoints updated, before publishing it.
+ *
+ * Writes must be serialized by the caller (the repository's write lock); reads are lock-free.
+ */
+public final class AccountRollups {
+    private final Map<Granularity, ConcurrentSkipListMap<LocalDateTime, RollupBucket>> buckets =
+            new EnumMap<>(Granularity.class);
+    private volatile Checkpoints checkpoints = Checkpoints.EMPTY;
+
+    public AccountRollups() {
+        for (Granularity granularity : Granularity.values()) {
+            buckets.put(granularity, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Adds a transaction of the account to the hour, day and month containing it and to the checkpoints
+     * from its day onwards. Not thread-safe with respect to other writers.
+     *
+     * @throws ArithmeticException if a total would overflow
+     */
+    public void apply(Transaction transaction, String accountId) {
+        update(transaction, bucket -> bucket.apply(transaction, accountId));
+    }
+
+    /**
+     * Completes a transaction of the account that was added while PENDING, in the same periods and checkpoints,
+     * without counting it again. Not thread-safe with respect to other writers.
+     *
+     * @throws ArithmeticException if a total would overflow
+     */
+    public void settle(Transaction transaction, String accountId) {
+        update(transaction, bucket -> bucket.settle(transaction, accountId));
+    }
+
+    private void update(Transaction transaction, UnaryOperator<RollupBucket> change) {
+        // Computed before any bucket changes, so an overflow leaves the checkpoints as they were
+        Checkpoints updated = checkpoints.with(transaction.getTimestamp().toLocalDate().toEpochDay(), change);
+        for (Granularity granularity : Granularity.values()) {
+            buckets.get(granularity).compute(granularity.truncate(transaction.getTimestamp()),
+                    (start, bucket) -> change.apply(bucket != null ? bucket : RollupBucket.EMPTY));
+        }
+        checkpoints = updated;
+    }
+
+    /**
+     * Returns the non-empty periods whose start lies in a range, in chronological order.
+     *
+     * @param granularity the period length
+     * @param from start of the first period, or null for no lower bound
+     * @param to latest period start to include, or null for no upper bound
+     * @return a read-only view from period start to bucket
+     */
+    public NavigableMap<LocalDateTime, RollupBucket> periods(Granularity granularity, LocalDateTime from,
+                                                             LocalDateTime to) {
+        NavigableMap<LocalDateTime, RollupBucket> periods = buckets.get(granularity);
+        if (from != null) {
+            periods = periods.tailMap(from, true);
+        }
+        if (to != null) {
+            periods = periods.headMap(to, true);
+        }
+        return Collections.unmodifiableNavigableMap(periods);
+    }
+
+    /**
+     * Returns the combined flows of every transaction before an hour boundary: the checkpoint of the latest
+     * earlier day with transactions plus the hour buckets of the boundary's day before it.
+     *
+     * @param hourStart an instant at the start of an hour
+     */
+    public RollupBucket flowsBefore(LocalDateTime hourStart) {
+        LocalDateTime dayStart = Granularity.DAY.truncate(hourStart);
+        RollupBucket total = checkpoints.before(dayStart.toLocalDate().toEpochDay());
+        for (RollupBucket bucket : buckets.get(Granularity.HOUR).subMap(dayStart, true, hourStart, false).values()) {
+            total = total.plus(bucket);
+        }
+        return total;
+    }
+
+    /**
+     * Cumulative flows at the end of every day with transactions, in day order. Instances are never modified
+     * once published: appending writes past the end of arrays that older instances share, which they never read,
+     * and the latest day's total is held outside the arrays so replacing it needs no copy.
+     */
+    private static final class Checkpoints {
+        private static final int INITIAL_CAPACITY = 8;
+        private static final Checkpoints EMPTY = new Checkpoints(new long[0], new RollupBucket[0], 0, null);
+
+        // Epoch days, ascending
+        private final long[] days;
+        // Totals of every day but the latest
+        private final RollupBucket[] totals;
+        private final int size;
+        private final RollupBucket latest;
+
+        private Checkpoints(long[] days, RollupBucket[] totals, int size, RollupBucket latest) {
+            this.days = days;
+            this.totals = totals;
+            this.size = size;
+            this.latest = latest;
+        }
+
+        private RollupBucket total(int index) {
+            return index == size - 1 ? latest : totals[index];
+        }
+
+        /**
+         * Returns the total of the latest day before {@code epochDay}, or an empty bucket if there is none.
+         */
+        private RollupBucket before(long epochDay) {
+            int index = Arrays.binarySearch(days, 0, size, epochDay);
+            int previous = (index >= 0 ? index : -index - 1) - 1;
+            return previous >= 0 ? total(previous) : RollupBucket.EMPTY;
+        }
+
+        /**
+         * Returns the checkpoints with a change applied to the day of a transaction and every later day.
+         */
+        private Checkpoints with(long epochDay, UnaryOperator<RollupBucket> change) {
+            if (size > 0 && epochDay == days[size - 1]) {
+                return new Checkpoints(days, totals, size, change.apply(latest));
+            }
+            if (size == 0 || epochDay > days[size - 1]) {
+                RollupBucket added = change.apply(size > 0 ? latest : RollupBucket.EMPTY);
+                long[] appendedDays = days;
+                RollupBucket[] appendedTotals = totals;
+                if (size == days.length) {
+                    int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+                    appendedDays = Arrays.copyOf(days, capacity);
+                    appendedTotals = Arrays.copyOf(totals, capacity);
+                }
+                appendedDays[size] = epochDay;
+                if (size > 0) {
+                    // Seals the previous latest day; readers of this instance stop at size - 1
+                    appendedTotals[size - 1] = latest;
+                }
+                return new Checkpoints(appendedDays, appendedTotals, size + 1, added);
+            }
+            // Backdated: copy, inserting the day if it had no transactions, and update it and every later day
+            int index = Arrays.binarySearch(days, 0, size, epochDay);
+            boolean inserted = index < 0;
+            int from = inserted ? -index - 1 : index;
+            int newSize = inserted ? size + 1 : size;
+            long[] copiedDays = new long[Math.max(INITIAL_CAPACITY, newSize + newSize / 2)];
+            RollupBucket[] copiedTotals = new RollupBucket[copiedDays.length];
+            System.arraycopy(days, 0, copiedDays, 0, from);
+            System.arraycopy(totals, 0, copiedTotals, 0, from);
+            int shift = inserted ? 1 : 0;
+            if (inserted) {
+                copiedDays[from] = epochDay;
+                copiedTotals[from] = change.apply(from > 0 ? total(from - 1) : RollupBucket.EMPTY);
+            }
+            for (int i = from; i < size; i++) {
+                copiedDays[i + shift] = days[i];
+                copiedTotals[i + shift] = change.apply(total(i));
+            }
+            RollupBucket newLatest = copiedTotals[newSize - 1];
+            copiedTotals[newSize - 1] = null;
+            return new Checkpoints(copiedDays, copiedTotals, newSize, newLatest);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.banking.repository.aggregate;
+
+/**
+ * One version of an account's aggregate in a chain from newest to oldest, so readers pinned at an
+ * older ledger version still find the aggregate as it was then. Versions no open snapshot can see
+ * are unlinked by {@link #prune(long)}.
+ */
+public final class AggregateVersion {
+    private final AccountAggregate aggregate;
+    private final long visibleFrom;
+    private volatile AggregateVersion previous;
+
+    /**
+     * @param aggregate the aggregate
+     * @param visibleFrom the ledger version from which the aggregate is current
+     * @param previous the version it replaces, or null if no reader can need it
+     */
+    public AggregateVersion(AccountAggregate aggregate, long visibleFrom, AggregateVersion previous) {
+        this.aggregate = aggregate;
+        this.visibleFrom = visibleFrom;
+        this.previous = previous;
+    }
+
+    public AccountAggregate getAggregate() {
+        return aggregate;
+    }
+
+    /**
+     * Returns the aggregate as of a ledger version, i.e. after the first {@code ledgerVersion} appends and settlements.
+     */
+    public AccountAggregate asOf(long ledgerVersion) {
+        for (AggregateVersion version = this; version != null; version = version.previous) {
+            if (version.visibleFrom <= ledgerVersion) {
+                return version.aggregate;
+            }
+        }
+        return AccountAggregate.EMPTY;
+    }
+
+    /**
+     * Drops the versions older than the one visible at {@code oldestLedgerVersion}, the smallest ledger version
+     * any open snapshot is pinned at. Must be called by the writer.
+     */
+    public void prune(long oldestLedgerVersion) {
+        for (AggregateVersion version = this; version != null; version = version.previous) {
+            if (version.visibleFrom <= oldestLedgerVersion) {
+                version.previous = null;
+                return;
+            }
+        }
+    }
+}
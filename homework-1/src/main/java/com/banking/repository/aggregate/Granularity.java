@@ -0,0 +1,41 @@
+package com.banking.repository.aggregate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Length of a statement period. Periods are aligned to calendar boundaries.
+ */
+public enum Granularity {
+    HOUR,
+    DAY,
+    MONTH;
+
+    /**
+     * Returns the start of the period containing a timestamp.
+     */
+    public LocalDateTime truncate(LocalDateTime timestamp) {
+        switch (this) {
+            case HOUR:
+                return timestamp.truncatedTo(ChronoUnit.HOURS);
+            case DAY:
+                return timestamp.truncatedTo(ChronoUnit.DAYS);
+            default:
+                return timestamp.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        }
+    }
+
+    /**
+     * Returns the start of the period following the one starting at {@code periodStart}.
+     */
+    public LocalDateTime next(LocalDateTime periodStart) {
+        switch (this) {
+            case HOUR:
+                return periodStart.plusHours(1);
+            case DAY:
+                return periodStart.plusDays(1);
+            default:
+                return periodStart.plusMonths(1);
+        }
+    }
+}
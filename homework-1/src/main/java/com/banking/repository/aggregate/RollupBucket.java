@@ -0,0 +1,100 @@
+package com.banking.repository.aggregate;
+
+import com.banking.model.Money;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import java.math.BigDecimal;
+
+/**
+ * Immutable flows of one account over one period: money in, money out and the number of transactions.
+ * Like {@link AccountAggregate}, amounts only reflect COMPLETED transactions, are kept as {@code long}
+ * minor units, and the count covers every transaction that references the account.
+ * Buckets over consecutive periods add up with {@link #plus(RollupBucket)}.
+ */
+public final class RollupBucket {
+    public static final RollupBucket EMPTY = new RollupBucket(0, 0, 0, 0);
+
+    private final int scale;
+    private final long totalIn;
+    private final long totalOut;
+    private final int transactionCount;
+
+    private RollupBucket(int scale, long totalIn, long totalOut, int transactionCount) {
+        this.scale = scale;
+        this.totalIn = totalIn;
+        this.totalOut = totalOut;
+        this.transactionCount = transactionCount;
+    }
+
+    /**
+     * Returns the bucket that results from adding a transaction of the account to this period.
+     *
+     * @throws ArithmeticException if a total would overflow
+     */
+    public RollupBucket apply(Transaction transaction, String accountId) {
+        return apply(transaction, accountId, transactionCount + 1);
+    }
+
+    /**
+     * Returns the bucket that results from a transaction of this period that was added while PENDING
+     * completing, without counting it again.
+     *
+     * @throws ArithmeticException if a total would overflow
+     */
+    public RollupBucket settle(Transaction transaction, String accountId) {
+        return apply(transaction, accountId, transactionCount);
+    }
+
+    private RollupBucket apply(Transaction transaction, String accountId, int count) {
+        boolean credit = AccountAggregate.isCredit(transaction, accountId);
+        boolean debit = AccountAggregate.isDebit(transaction, accountId);
+        if (transaction.getStatus() != TransactionStatus.COMPLETED || !(credit || debit)) {
+            return new RollupBucket(scale, totalIn, totalOut, count);
+        }
+
+        BigDecimal amount = transaction.getAmount();
+        // Only as many decimal places as the amounts need, so totals never exceed the account aggregate's
+        int newScale = Math.max(scale, amount.stripTrailingZeros().scale());
+        long minorUnits = Money.toMinorUnits(amount, newScale);
+        long newIn = Money.rescale(totalIn, scale, newScale);
+        long newOut = Money.rescale(totalOut, scale, newScale);
+        if (credit) {
+            newIn = Math.addExact(newIn, minorUnits);
+        } else {
+            newOut = Math.addExact(newOut, minorUnits);
+        }
+        return new RollupBucket(newScale, newIn, newOut, count);
+    }
+
+    /**
+     * Returns the combined flows of this bucket and another.
+     *
+     * @throws ArithmeticException if a total would overflow
+     */
+    public RollupBucket plus(RollupBucket other) {
+        int newScale = Math.max(scale, other.scale);
+        return new RollupBucket(newScale,
+                Math.addExact(Money.rescale(totalIn, scale, newScale), Money.rescale(other.totalIn, other.scale, newScale)),
+                Math.addExact(Money.rescale(totalOut, scale, newScale), Money.rescale(other.totalOut, other.scale, newScale)),
+                transactionCount + other.transactionCount);
+    }
+
+    public Money getTotalIn() {
+        return new Money(totalIn, scale, null);
+    }
+
+    public Money getTotalOut() {
+        return new Money(totalOut, scale, null);
+    }
+
+    /**
+     * Returns money in minus money out, i.e. the change in balance over the period.
+     */
+    public Money getNet() {
+        return new Money(Math.subtractExact(totalIn, totalOut), scale, null);
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+}
@@ -0,0 +1,161 @@
+package com.banking.repository.aggregate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters sketch: tracks at most {@code capacity} keys with weighted counts.
+ * When a new key arrives and the sketch is full, the key with the smallest count is replaced and the
+ * newcomer inherits that count as its possible overestimation. Every key whose true weight exceeds
+ * {@code total / capacity} is guaranteed to be tracked.
+ *
+ * Counters are kept in an indexed binary min-heap, so updates cost {@code O(log capacity)}.
+ * Not thread-safe.
+ */
+public final class SpaceSavingSketch {
+    private final int capacity;
+    private final String[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> heapIndex;
+    private int size;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Sketch capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heapIndex = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Adds a weight to a key.
+     *
+     * @param key the key
+     * @param weight a non-negative weight
+     */
+    public void add(String key, long weight) {
+        Integer index = heapIndex.get(key);
+        if (index != null) {
+            counts[index] = saturatedAdd(counts[index], weight);
+            siftDown(index);
+        } else if (size < capacity) {
+            keys[size] = key;
+            counts[size] = weight;
+            errors[size] = 0;
+            heapIndex.put(key, size);
+            siftUp(size++);
+        } else {
+            // Evict the minimum; the newcomer may have been counted in it before, hence the error bound
+            heapIndex.remove(keys[0]);
+            errors[0] = counts[0];
+            counts[0] = saturatedAdd(counts[0], weight);
+            keys[0] = key;
+            heapIndex.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the estimated count of a key, or -1 if it is not tracked.
+     */
+    public long count(String key) {
+        Integer index = heapIndex.get(key);
+        return index != null ? counts[index] : -1;
+    }
+
+    /**
+     * Returns the maximum overestimation of a tracked key's count, or -1 if it is not tracked.
+     */
+    public long error(String key) {
+        Integer index = heapIndex.get(key);
+        return index != null ? errors[index] : -1;
+    }
+
+    /**
+     * Returns the smallest tracked count when the sketch is full, which bounds the weight of any
+     * untracked key, or 0 when every key seen so far is tracked.
+     */
+    public long untrackedBound() {
+        return size == capacity ? counts[0] : 0;
+    }
+
+    /**
+     * Visits every tracked key with its estimated count and maximum overestimation.
+     */
+    public void forEach(TrackedKeyConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(keys[i], counts[i], errors[i]);
+        }
+    }
+
+    /**
+     * Forgets every key.
+     */
+    public void clear() {
+        heapIndex.clear();
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[parent] <= counts[index]) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        heapIndex.put(keys[a], a);
+        heapIndex.put(keys[b], b);
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < a ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * Receives a tracked key, its estimated count and the maximum amount by which it may be overestimated.
+     */
+    @FunctionalInterface
+    public interface TrackedKeyConsumer {
+        void accept(String key, long count, long error);
+    }
+}
@@ -0,0 +1,324 @@
+package com.banking.repository.aggregate;
+
+import com.banking.model.Money;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Most active accounts over sliding time windows, kept in bounded memory.
+ *
+ * Time is cut into fixed buckets by transaction timestamp, and the most recent buckets are kept in a ring.
+ * Each bucket holds {@link SpaceSavingSketch}es of transactions per account and of amount sent per account,
+ * one volume sketch per currency in that currency's minor units, since amounts in different currencies cannot be
+ * added up. A query merges the sketches of the buckets inside the window, so its cost depends on the number of
+ * buckets and the sketch capacity, never on the number of transactions; the merge of the closed buckets
+ * is cached, so most queries only touch the open bucket. Memory is bounded by
+ * {@code buckets * (1 + currencies) * capacity} counters plus one cached merge per sketch kind.
+ */
+@Component
+public class TopAccountsTracker {
+    private final long bucketSeconds;
+    private final int capacity;
+    private final Bucket[] ring;
+    // Keyed by metric and, for volume, currency
+    private final Map<String, ClosedWindow> closedWindows = new HashMap<>();
+
+    public TopAccountsTracker(@Value("${banking.top-accounts.bucket-seconds:60}") long bucketSeconds,
+                              @Value("${banking.top-accounts.buckets:60}") int buckets,
+                              @Value("${banking.top-accounts.capacity:256}") int capacity) {
+        if (bucketSeconds < 1 || buckets < 1) {
+            throw new IllegalArgumentException("Top accounts bucket length and count must be positive");
+        }
+        this.bucketSeconds = bucketSeconds;
+        this.capacity = capacity;
+        this.ring = new Bucket[buckets];
+        for (int i = 0; i < buckets; i++) {
+            ring[i] = new Bucket(capacity);
+        }
+    }
+
+    /**
+     * Counts a batch of saved transactions. Transactions older than the tracked range are ignored.
+     */
+    public synchronized void recordAll(List<Transaction> batch) {
+        for (Transaction transaction : batch) {
+            record(transaction, true);
+        }
+    }
+
+    /**
+     * Adds the volume of transactions that completed after being recorded as PENDING; they are not counted again.
+     * Transactions older than the tracked range are ignored.
+     */
+    public synchronized void recordSettled(List<Transaction> settled) {
+        for (Transaction transaction : settled) {
+            record(transaction, false);
+        }
+    }
+
+    private void record(Transaction transaction, boolean count) {
+        long index = bucketIndex(transaction.getTimestamp());
+        Bucket bucket = ring[(int) Math.floorMod(index, (long) ring.length)];
+        if (bucket.index > index) {
+            return;
+        }
+        if (bucket.index < index) {
+            bucket.reset(index);
+        }
+        bucket.version++;
+
+        String from = transaction.getFromAccount();
+        String to = transaction.getToAccount();
+        if (count && from != null) {
+            bucket.counts.add(from, 1);
+        }
+        if (count && to != null && !to.equals(from)) {
+            bucket.counts.add(to, 1);
+        }
+        if (from != null && transaction.getCurrency() != null &&
+                transaction.getStatus() == TransactionStatus.COMPLETED) {
+            long volume = toVolumeUnits(transaction);
+            if (volume > 0) {
+                bucket.volumes.computeIfAbsent(transaction.getCurrency(), currency -> new SpaceSavingSketch(capacity))
+                        .add(from, volume);
+            }
+        }
+    }
+
+    /**
+     * Returns the accounts with the highest estimated count or volume over a window ending now.
+     *
+     * The closed buckets of the window are merged once and cached with their accounts ranked, until
+     * the window moves to another bucket or a late transaction lands in one of them. A query then
+     * only combines the top of that ranking with the accounts of the open bucket.
+     *
+     * @param metric what to rank by
+     * @param currency the currency volumes are ranked in; required for {@link Metric#VOLUME}, ignored otherwise
+     * @param window the window length, at most {@link #maxWindow()}
+     * @param limit the maximum number of accounts to return
+     * @param now the end of the window
+     * @return the top accounts, highest first; volumes are in the currency's minor units
+     *         (see {@link Money#scaleOf})
+     */
+    public synchronized List<Estimate> top(Metric metric, String currency, Duration window, int limit,
+                                           LocalDateTime now) {
+        if (metric == Metric.VOLUME && currency == null) {
+            throw new IllegalArgumentException("Volume is ranked per currency");
+        }
+        String sketchKey = metric == Metric.VOLUME ? metric.name() + ":" + currency : metric.name();
+        long last = bucketIndex(now);
+        long first = bucketIndex(now.minus(window));
+        ClosedWindow closed = closedWindow(sketchKey, metric, currency, first, last);
+        Bucket openBucket = ring[(int) Math.floorMod(last, (long) ring.length)];
+        SpaceSavingSketch open = openBucket.index == last ? sketchOf(openBucket, metric, currency) : null;
+
+        Map<String, Estimate> candidates = new HashMap<>();
+        // An account outside the open bucket keeps its closed total, so only the closed top can win
+        for (int i = 0; i < Math.min(limit, closed.ranked.size()); i++) {
+            String accountId = closed.ranked.get(i);
+            candidates.put(accountId, combine(accountId, closed, open));
+        }
+        if (open != null) {
+            open.forEach((accountId, count, error) -> candidates.computeIfAbsent(accountId,
+                    key -> combine(key, closed, open)));
+        }
+
+        PriorityQueue<Estimate> best = new PriorityQueue<>(Comparator.comparingLong(Estimate::getValue));
+        for (Estimate estimate : candidates.values()) {
+            best.add(estimate);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Estimate> estimates = new ArrayList<>(best);
+        estimates.sort(Comparator.comparingLong(Estimate::getValue).reversed());
+        return estimates;
+    }
+
+    private static Estimate combine(String accountId, ClosedWindow closed, SpaceSavingSketch open) {
+        long[] totals = closed.totals.get(accountId);
+        long value = totals != null ? totals[0] : 0;
+        long error = totals != null ? totals[1] : closed.untrackedBound;
+        if (open != null) {
+            long count = open.count(accountId);
+            value += Math.max(count, 0);
+            error += count >= 0 ? open.error(accountId) : open.untrackedBound();
+        }
+        return new Estimate(accountId, value, error);
+    }
+
+    /**
+     * Returns the merged sketches of the buckets {@code [first, last)}, from the cache when none of
+     * them changed since it was built.
+     */
+    private ClosedWindow closedWindow(String sketchKey, Metric metric, String currency, long first, long last) {
+        long version = 0;
+        for (Bucket bucket : ring) {
+            if (bucket.index >= first && bucket.index < last) {
+                version += bucket.version;
+            }
+        }
+        ClosedWindow cached = closedWindows.get(sketchKey);
+        if (cached != null && cached.first == first && cached.last == last && cached.version == version) {
+            return cached;
+        }
+
+        Map<String, long[]> totals = new HashMap<>();
+        long untrackedBound = 0;
+        for (Bucket bucket : ring) {
+            if (bucket.index < first || bucket.index >= last) {
+                continue;
+            }
+            SpaceSavingSketch sketch = sketchOf(bucket, metric, currency);
+            if (sketch == null) {
+                continue;
+            }
+            long bound = sketch.untrackedBound();
+            untrackedBound += bound;
+            sketch.forEach((key, count, error) -> {
+                long[] merged = totals.computeIfAbsent(key, k -> new long[3]);
+                merged[0] += count;
+                merged[1] += error;
+                merged[2] += bound;
+            });
+        }
+        for (long[] merged : totals.values()) {
+            // Buckets that did not track the key may still have seen up to their untracked bound of it
+            merged[1] += untrackedBound - merged[2];
+        }
+        List<String> ranked = new ArrayList<>(totals.keySet());
+        ranked.sort(Comparator.comparingLong((String key) -> totals.get(key)[0]).reversed());
+
+        ClosedWindow built = new ClosedWindow(first, last, version, totals, ranked, untrackedBound);
+        closedWindows.put(sketchKey, built);
+        return built;
+    }
+
+    /**
+     * Returns the bucket's sketch for a metric, or null if no volume was recorded in the currency.
+     */
+    private static SpaceSavingSketch sketchOf(Bucket bucket, Metric metric, String currency) {
+        return metric == Metric.VOLUME ? bucket.volumes.get(currency) : bucket.counts;
+    }
+
+    /**
+     * Returns the longest window the ring covers.
+     */
+    public Duration maxWindow() {
+        return Duration.ofSeconds(bucketSeconds * ring.length);
+    }
+
+    /**
+     * Returns the number of accounts each bucket tracks per metric.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    private long bucketIndex(LocalDateTime timestamp) {
+        return Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), bucketSeconds);
+    }
+
+    /**
+     * Returns the amount in minor units of its currency, or 0 if it does not fit in a long.
+     */
+    private static long toVolumeUnits(Transaction transaction) {
+        int scale = Money.scaleOf(transaction.getCurrency());
+        try {
+            return Money.toMinorUnits(transaction.getAmount().setScale(scale, RoundingMode.DOWN), scale);
+        } catch (ArithmeticException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * What accounts are ranked by.
+     */
+    public enum Metric {
+        /** Number of transactions referencing the account. */
+        COUNT,
+        /** Total amount of completed transactions sent from the account, per currency. */
+        VOLUME
+    }
+
+    /**
+     * An account's estimated value and the most it may be overestimated by.
+     */
+    public static final class Estimate {
+        private final String accountId;
+        private final long value;
+        private final long maxError;
+
+        public Estimate(String accountId, long value, long maxError) {
+            this.accountId = accountId;
+            this.value = value;
+            this.maxError = maxError;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public long getValue() {
+            return value;
+        }
+
+        public long getMaxError() {
+            return maxError;
+        }
+    }
+
+    /**
+     * Merged sketches of the closed buckets of a window, with accounts ranked by merged value.
+     */
+    private static final class ClosedWindow {
+        private final long first;
+        private final long last;
+        private final long version;
+        // Account -> {value, max error, untracked bounds of the buckets tracking it}
+        private final Map<String, long[]> totals;
+        private final List<String> ranked;
+        private final long untrackedBound;
+
+        private ClosedWindow(long first, long last, long version, Map<String, long[]> totals, List<String> ranked,
+                             long untrackedBound) {
+            this.first = first;
+            this.last = last;
+            this.version = version;
+            this.totals = totals;
+            this.ranked = ranked;
+            this.untrackedBound = untrackedBound;
+        }
+    }
+
+    private static final class Bucket {
+        private final SpaceSavingSketch counts;
+        // By currency, created when the bucket first sees a completed transaction in it
+        private final Map<String, SpaceSavingSketch> volumes = new HashMap<>();
+        private long index = Long.MIN_VALUE;
+        // Incremented on every change, so cached merges can tell whether the bucket moved on
+        private long version;
+
+        private Bucket(int capacity) {
+            counts = new SpaceSavingSketch(capacity);
+        }
+
+        private void reset(long newIndex) {
+            counts.clear();
+            volumes.clear();
+            index = newIndex;
+        }
+    }
+}
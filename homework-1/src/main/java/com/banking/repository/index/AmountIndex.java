@@ -0,0 +1,136 @@
+package com.banking.repository.index;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.IntStream;
+
+/**
+ * Sorted index of one currency's transactions by amount, keyed on minor units at the currency's scale
+ * (cents for USD, yen for JPY) so entries compare as plain longs.
+ * Amounts that do not fit that key exactly, with more decimal places than the currency allows or beyond
+ * a long, are kept aside with their decimal value; range lookups check them too, so results are exact.
+ * Adds must be serialized by the caller (the repository's write lock); readers are lock-free.
+ */
+public class AmountIndex {
+    private final int scale;
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+    private final Map<Integer, BigDecimal> inexact = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param scale the number of decimal places of the currency's minor unit
+     */
+    public AmountIndex(int scale) {
+        this.scale = scale;
+    }
+
+    /**
+     * Indexes the amount of the transaction at a log position. Not thread-safe with respect to other writers.
+     */
+    public void add(BigDecimal amount, int position) {
+        BigDecimal minorUnits = amount.movePointRight(scale);
+        if (minorUnits.signum() != 0 && minorUnits.stripTrailingZeros().scale() > 0 ||
+                minorUnits.setScale(0, RoundingMode.UNNECESSARY).unscaledValue().bitLength() >= Long.SIZE) {
+            inexact.put(position, amount);
+            return;
+        }
+        entries.add(new Entry(minorUnits.longValue(), position));
+    }
+
+    /**
+     * Counts the transactions with an amount in a range, stopping at a limit so the query planner can
+     * compare the range against cheaper access paths without walking all of it.
+     *
+     * @param min the inclusive lower bound, or null if open
+     * @param max the inclusive upper bound, or null if open
+     * @param limit the maximum count of interest
+     * @return the number of matching transactions, capped at {@code limit}
+     */
+    public long count(BigDecimal min, BigDecimal max, long limit) {
+        long count = 0;
+        Iterator<Entry> range = range(min, max).iterator();
+        while (count < limit && range.hasNext()) {
+            range.next();
+            count++;
+        }
+        for (BigDecimal amount : inexact.values()) {
+            if (count >= limit) {
+                break;
+            }
+            if (within(amount, min, max)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Streams the log positions of transactions with an amount in a range, in ascending amount order.
+     *
+     * @param min the inclusive lower bound, or null if open
+     * @param max the inclusive upper bound, or null if open
+     * @return the matching positions
+     */
+    public IntStream positions(BigDecimal min, BigDecimal max) {
+        IntStream indexed = range(min, max).stream().mapToInt(Entry::position);
+        if (inexact.isEmpty()) {
+            return indexed;
+        }
+        IntStream unindexed = inexact.entrySet().stream()
+                .filter(entry -> within(entry.getValue(), min, max))
+                .mapToInt(Map.Entry::getKey);
+        return IntStream.concat(indexed, unindexed);
+    }
+
+    private NavigableSet<Entry> range(BigDecimal min, BigDecimal max) {
+        long lower = min == null ? Long.MIN_VALUE : toKey(min, RoundingMode.CEILING);
+        long upper = max == null ? Long.MAX_VALUE : toKey(max, RoundingMode.FLOOR);
+        if (lower > upper) {
+            return Collections.emptyNavigableSet();
+        }
+        return entries.subSet(new Entry(lower, Integer.MIN_VALUE), true, new Entry(upper, Integer.MAX_VALUE), true);
+    }
+
+    /**
+     * Converts a bound to minor units, rounding towards the inside of the range and clamping to a long.
+     */
+    private long toKey(BigDecimal bound, RoundingMode rounding) {
+        BigDecimal minorUnits = bound.movePointRight(scale).setScale(0, rounding);
+        if (minorUnits.unscaledValue().bitLength() >= Long.SIZE) {
+            return minorUnits.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        return minorUnits.longValue();
+    }
+
+    private static boolean within(BigDecimal amount, BigDecimal min, BigDecimal max) {
+        return (min == null || amount.compareTo(min) >= 0) && (max == null || amount.compareTo(max) <= 0);
+    }
+
+    /**
+     * Index entry ordered by amount, then by log position.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        private final long minorUnits;
+        private final int position;
+
+        private Entry(long minorUnits, int position) {
+            this.minorUnits = minorUnits;
+            this.position = position;
+        }
+
+        private int position() {
+            return position;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byAmount = Long.compare(minorUnits, other.minorUnits);
+            return byAmount != 0 ? byAmount : Integer.compare(position, other.position);
+        }
+    }
+}
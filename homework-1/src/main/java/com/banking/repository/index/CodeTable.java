@@ -0,0 +1,67 @@
+package com.banking.repository.index;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Table keyed by dense dictionary codes, used in place of a hash map keyed by strings.
+ * Writes must be serialized by the caller (the repository's write lock); reads are lock-free
+ * and see every value published before them.
+ *
+ * @param <V> the value type
+ */
+public class CodeTable<V> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Only the reference is replaced when the table grows
+    private volatile AtomicReferenceArray<V> values = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+    /**
+     * Returns the value stored for a code.
+     *
+     * @param code the dictionary code; negative codes have no value
+     * @return the value, or {@code null} if there is none
+     */
+    public V get(int code) {
+        AtomicReferenceArray<V> current = values;
+        return code >= 0 && code < current.length() ? current.get(code) : null;
+    }
+
+    /**
+     * Stores a value for a code. Not thread-safe with respect to other writers.
+     */
+    public void put(int code, V value) {
+        ensureCapacity(code).set(code, value);
+    }
+
+    /**
+     * Returns the value for a code, creating and storing it first if there is none.
+     * Not thread-safe with respect to other writers.
+     */
+    public V computeIfAbsent(int code, IntFunction<V> factory) {
+        AtomicReferenceArray<V> current = ensureCapacity(code);
+        V value = current.get(code);
+        if (value == null) {
+            value = factory.apply(code);
+            current.set(code, value);
+        }
+        return value;
+    }
+
+    private AtomicReferenceArray<V> ensureCapacity(int code) {
+        AtomicReferenceArray<V> current = values;
+        if (code < current.length()) {
+            return current;
+        }
+        int capacity = current.length();
+        while (capacity <= code) {
+            capacity *= 2;
+        }
+        AtomicReferenceArray<V> grown = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        values = grown;
+        return grown;
+    }
+}
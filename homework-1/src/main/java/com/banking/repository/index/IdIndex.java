@@ -0,0 +1,131 @@
+package com.banking.repository.index;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Index of transaction ID to log position that keeps no ID strings. Each slot holds the ID's hash and
+ * the position, in open-addressing tables split into partitions so that growing one copies only a
+ * fraction of the index under the write lock; a hash match is confirmed against the stored row.
+ * Costs about 16 bytes per transaction at most half full, instead of a map node, a boxed position and the ID.
+ * Adds must be serialized by the caller (the repository's write lock); readers are lock-free.
+ */
+public class IdIndex {
+    private static final int PARTITION_BITS = 6;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final AtomicReferenceArray<Table> partitions = new AtomicReferenceArray<>(1 << PARTITION_BITS);
+    // Confirms that the row at a position has an ID; a hash alone may collide
+    private final RowMatcher hasId;
+
+    /**
+     * @param hasId tests whether the row at a position has the given ID, without materializing it if possible
+     */
+    public IdIndex(RowMatcher hasId) {
+        this.hasId = hasId;
+        for (int i = 0; i < partitions.length(); i++) {
+            partitions.set(i, new Table(INITIAL_CAPACITY));
+        }
+    }
+
+    /**
+     * Maps an ID to a position, replacing any position it had. Not thread-safe with respect to other writers.
+     *
+     * @param id the transaction ID
+     * @param position the log position, published in the store before this call
+     */
+    public void put(String id, int position) {
+        int hash = hash(id);
+        int partition = hash >>> (Integer.SIZE - PARTITION_BITS);
+        Table table = partitions.get(partition);
+        int mask = table.positions.length() - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int stored = table.positions.get(slot);
+            if (stored == 0) {
+                break;
+            }
+            if (table.hashes.get(slot) == hash && hasId.test(stored - 1, id)) {
+                table.positions.set(slot, position + 1);
+                return;
+            }
+        }
+        if (2 * (table.size + 1) > table.positions.length()) {
+            table = grow(table);
+            // Readers switch to the copy, which holds every entry of the old table
+            partitions.set(partition, table);
+        }
+        table.insert(hash, position);
+    }
+
+    /**
+     * Returns the position of an ID.
+     *
+     * @param id the transaction ID
+     * @return the position, or -1 if the ID is not indexed
+     */
+    public int get(String id) {
+        int hash = hash(id);
+        Table table = partitions.get(hash >>> (Integer.SIZE - PARTITION_BITS));
+        int mask = table.positions.length() - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            // Reading the position first makes the hash stored before it visible
+            int stored = table.positions.get(slot);
+            if (stored == 0) {
+                return -1;
+            }
+            if (table.hashes.get(slot) == hash && hasId.test(stored - 1, id)) {
+                return stored - 1;
+            }
+        }
+    }
+
+    private static Table grow(Table table) {
+        Table grown = new Table(table.positions.length() * 2);
+        for (int slot = 0; slot < table.positions.length(); slot++) {
+            int stored = table.positions.get(slot);
+            if (stored != 0) {
+                grown.insert(table.hashes.get(slot), stored - 1);
+            }
+        }
+        return grown;
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Tests whether the row at a log position has an ID.
+     */
+    @FunctionalInterface
+    public interface RowMatcher {
+        boolean test(int position, String id);
+    }
+
+    /**
+     * One partition: slot hashes and positions plus one, so that zero marks a free slot.
+     * The array elements are written with volatile semantics, so a reader that sees a position also sees its row.
+     */
+    private static final class Table {
+        private final AtomicIntegerArray hashes;
+        private final AtomicIntegerArray positions;
+        private int size;
+
+        private Table(int capacity) {
+            hashes = new AtomicIntegerArray(capacity);
+            positions = new AtomicIntegerArray(capacity);
+        }
+
+        private void insert(int hash, int position) {
+            int mask = positions.length() - 1;
+            int slot = hash & mask;
+            while (positions.get(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            hashes.set(slot, hash);
+            positions.set(slot, position + 1);
+            size++;
+        }
+    }
+}
@@ -0,0 +1,606 @@
+package com.banking.repository.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compressed bitmap of log positions in the style of Roaring bitmaps. Positions are split by their high
+ * 16 bits into chunks of 65536; a chunk holding at most {@value #MAX_ARRAY_SIZE} positions is stored as a
+ * sorted array of their low 16 bits, a denser one as a 65536-bit bitmap. Sparse chunks cost two bytes
+ * per position, dense chunks at most 8 KB, and {@link #and}/{@link #or} combine bitmaps chunk by chunk,
+ * a word at a time on dense chunks.
+ *
+ * Changes must be serialized by the caller (the repository's write lock); readers are lock-free. Arrays are
+ * only appended to in place and are copied for any other change, so readers never see a half-shifted
+ * array; {@link #addAll} and {@link #removeAll} replace each chunk they touch. Bitmaps returned by
+ * {@link #and} and {@link #or} are new and never change.
+ */
+public class PositionBitmap {
+    private static final int CHUNK_SHIFT = 16;
+    private static final int LOW_MASK = (1 << CHUNK_SHIFT) - 1;
+    private static final int MAX_ARRAY_SIZE = 4096;
+    private static final int WORDS = (1 << CHUNK_SHIFT) / Long.SIZE;
+
+    // Indexed by chunk; null for chunks without positions
+    private volatile Container[] containers = new Container[0];
+    private volatile int cardinality;
+
+    public PositionBitmap() {
+    }
+
+    private PositionBitmap(Container[] containers, int cardinality) {
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Adds a position. Not thread-safe with respect to other writers.
+     *
+     * @param position the log position to add
+     */
+    public void add(int position) {
+        int chunk = position >>> CHUNK_SHIFT;
+        char low = (char) (position & LOW_MASK);
+        Container[] current = containers;
+        if (chunk >= current.length) {
+            current = Arrays.copyOf(current, Math.max(chunk + 1, current.length * 2));
+        }
+        Container container = current[chunk];
+        if (container != null && container.contains(low)) {
+            return;
+        }
+        current[chunk] = container == null ? new ArrayContainer(low) : container.add(low);
+        // Publish the directory before the cardinality so readers that see the count also see the position
+        containers = current;
+        cardinality = cardinality + 1;
+    }
+
+    /**
+     * Adds positions given in ascending order, merging each chunk's share in one step instead of copying an
+     * array once per out-of-order position. Not thread-safe with respect to other writers.
+     *
+     * @param positions the log positions to add, ascending
+     */
+    public void addAll(int[] positions) {
+        update(positions, true);
+    }
+
+    /**
+     * Removes positions given in ascending order, one replacement per chunk touched.
+     * Not thread-safe with respect to other writers.
+     *
+     * @param positions the log positions to remove, ascending
+     */
+    public void removeAll(int[] positions) {
+        update(positions, false);
+    }
+
+    private void update(int[] positions, boolean add) {
+        Container[] current = containers;
+        int change = 0;
+        int end;
+        for (int start = 0; start < positions.length; start = end) {
+            int chunk = positions[start] >>> CHUNK_SHIFT;
+            end = start + 1;
+            while (end < positions.length && positions[end] >>> CHUNK_SHIFT == chunk) {
+                end++;
+            }
+            Container container = chunk < current.length ? current[chunk] : null;
+            if (container == null && !add) {
+                continue;
+            }
+            if (chunk >= current.length) {
+                current = Arrays.copyOf(current, Math.max(chunk + 1, current.length * 2));
+            }
+            char[] lows = new char[end - start];
+            for (int i = start; i < end; i++) {
+                lows[i - start] = (char) (positions[i] & LOW_MASK);
+            }
+            ArrayContainer array = new ArrayContainer(lows, lows.length);
+            Container changes = lows.length > MAX_ARRAY_SIZE ? BitmapContainer.of(array) : array;
+            Container updated = container == null ? changes : add ? container.or(changes) : container.andNot(changes);
+            change += updated.cardinality() - (container == null ? 0 : container.cardinality());
+            current[chunk] = updated.cardinality() > 0 ? updated : null;
+        }
+        // Publish the directory before the cardinality, as in add
+        containers = current;
+        cardinality = cardinality + change;
+    }
+
+    public boolean contains(int position) {
+        Container[] current = containers;
+        int chunk = position >>> CHUNK_SHIFT;
+        return position >= 0 && chunk < current.length && current[chunk] != null &&
+                current[chunk].contains((char) (position & LOW_MASK));
+    }
+
+    /**
+     * Returns the number of positions in the bitmap.
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Returns the number of positions below a bound, summing whole chunks and ranking within the last one.
+     */
+    public int cardinalityBelow(int bound) {
+        if (bound <= 0) {
+            return 0;
+        }
+        Container[] current = containers;
+        int lastChunk = bound >>> CHUNK_SHIFT;
+        int count = 0;
+        for (int chunk = 0; chunk < Math.min(lastChunk, current.length); chunk++) {
+            if (current[chunk] != null) {
+                count += current[chunk].cardinality();
+            }
+        }
+        if (lastChunk < current.length && current[lastChunk] != null) {
+            count += current[lastChunk].rank((char) (bound & LOW_MASK));
+        }
+        return count;
+    }
+
+    /**
+     * Streams the positions in ascending order. The stream is sized and splits by chunk, so it can run in
+     * parallel; positions added after it was created are not seen.
+     */
+    public IntStream stream() {
+        return streamBelow(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Streams the positions below a bound in ascending order, like {@link #stream()}.
+     */
+    public IntStream streamBelow(int bound) {
+        // Copied, since add may replace a container in the live directory
+        Container[] current = containers.clone();
+        int[] counts = new int[current.length];
+        int lastChunk = Math.max(bound, 0) >>> CHUNK_SHIFT;
+        for (int chunk = 0; chunk < Math.min(lastChunk, current.length); chunk++) {
+            counts[chunk] = current[chunk] != null ? current[chunk].cardinality() : 0;
+        }
+        if (bound > 0 && lastChunk < current.length && current[lastChunk] != null) {
+            counts[lastChunk] = current[lastChunk].rank((char) (bound & LOW_MASK));
+        }
+        return StreamSupport.intStream(new ChunkSpliterator(current, counts, 0, current.length), false);
+    }
+
+    /**
+     * Returns the positions present in both bitmaps.
+     */
+    public PositionBitmap and(PositionBitmap other) {
+        Container[] left = containers;
+        Container[] right = other.containers;
+        Container[] result = new Container[Math.min(left.length, right.length)];
+        int count = 0;
+        for (int chunk = 0; chunk < result.length; chunk++) {
+            if (left[chunk] != null && right[chunk] != null) {
+                Container container = left[chunk].and(right[chunk]);
+                if (container.cardinality() > 0) {
+                    result[chunk] = container;
+                    count += container.cardinality();
+                }
+            }
+        }
+        return new PositionBitmap(result, count);
+    }
+
+    /**
+     * Returns the positions present in either bitmap.
+     */
+    public PositionBitmap or(PositionBitmap other) {
+        Container[] left = containers;
+        Container[] right = other.containers;
+        Container[] result = new Container[Math.max(left.length, right.length)];
+        int count = 0;
+        for (int chunk = 0; chunk < result.length; chunk++) {
+            Container a = chunk < left.length ? left[chunk] : null;
+            Container b = chunk < right.length ? right[chunk] : null;
+            Container container = a == null ? b : b == null ? a : a.or(b);
+            if (container != null) {
+                // A live container shared with its source keeps changing, so freeze a copy
+                result[chunk] = container == a || container == b ? container.copy() : container;
+                count += result[chunk].cardinality();
+            }
+        }
+        return new PositionBitmap(result, count);
+    }
+
+    /**
+     * The positions of one chunk, as 16-bit values.
+     */
+    private interface Container {
+        boolean contains(char low);
+
+        /**
+         * Returns the container with a value added: this one when it can take the value in place,
+         * otherwise a replacement.
+         */
+        Container add(char low);
+
+        int cardinality();
+
+        /**
+         * Returns the number of values below {@code low}.
+         */
+        int rank(char low);
+
+        Container and(Container other);
+
+        Container or(Container other);
+
+        /**
+         * Returns a new container with the values of this one that are not in {@code other}.
+         */
+        Container andNot(Container other);
+
+        Container copy();
+    }
+
+    private static final class ArrayContainer implements Container {
+        private volatile char[] values;
+        private volatile int size;
+
+        private ArrayContainer(char low) {
+            this(new char[] {low, 0, 0, 0}, 1);
+        }
+
+        private ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            int currentSize = size;
+            return Arrays.binarySearch(values, 0, currentSize, low) >= 0;
+        }
+
+        @Override
+        public Container add(char low) {
+            int currentSize = size;
+            char[] current = values;
+            if (currentSize == MAX_ARRAY_SIZE) {
+                return BitmapContainer.of(this).add(low);
+            }
+            if (currentSize > 0 && low < current[currentSize - 1]) {
+                // Out of order: insert into a copy
+                int index = -Arrays.binarySearch(current, 0, currentSize, low) - 1;
+                char[] inserted = new char[Math.max(current.length, currentSize + 1)];
+                System.arraycopy(current, 0, inserted, 0, index);
+                inserted[index] = low;
+                System.arraycopy(current, index, inserted, index + 1, currentSize - index);
+                return new ArrayContainer(inserted, currentSize + 1);
+            }
+            if (currentSize == current.length) {
+                current = Arrays.copyOf(current, Math.min(current.length * 2, MAX_ARRAY_SIZE));
+            }
+            current[currentSize] = low;
+            // Publish the array before the size so readers never index past its end
+            values = current;
+            size = currentSize + 1;
+            return this;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public int rank(char low) {
+            int currentSize = size;
+            int index = Arrays.binarySearch(values, 0, currentSize, low);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        @Override
+        public Container and(Container other) {
+            int currentSize = size;
+            char[] current = values;
+            char[] result = new char[currentSize];
+            int count = 0;
+            for (int i = 0; i < currentSize; i++) {
+                if (other.contains(current[i])) {
+                    result[count++] = current[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer that = (ArrayContainer) other;
+            int leftSize = size;
+            char[] left = values;
+            int rightSize = that.size;
+            char[] right = that.values;
+            char[] merged = new char[leftSize + rightSize];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < leftSize || j < rightSize) {
+                if (j == rightSize || i < leftSize && left[i] < right[j]) {
+                    merged[count++] = left[i++];
+                } else if (i == leftSize || right[j] < left[i]) {
+                    merged[count++] = right[j++];
+                } else {
+                    merged[count++] = left[i++];
+                    j++;
+                }
+            }
+            ArrayContainer union = new ArrayContainer(merged, count);
+            return count > MAX_ARRAY_SIZE ? BitmapContainer.of(union) : union;
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            int currentSize = size;
+            char[] current = values;
+            char[] result = new char[currentSize];
+            int count = 0;
+            for (int i = 0; i < currentSize; i++) {
+                if (!other.contains(current[i])) {
+                    result[count++] = current[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container copy() {
+            int currentSize = size;
+            return new ArrayContainer(Arrays.copyOf(values, currentSize), currentSize);
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final long[] words;
+        private volatile int cardinality;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        private static BitmapContainer of(ArrayContainer array) {
+            int size = array.size;
+            char[] values = array.values;
+            long[] words = new long[WORDS];
+            for (int i = 0; i < size; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, size);
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & 1L << low) != 0;
+        }
+
+        @Override
+        public Container add(char low) {
+            words[low >>> 6] |= 1L << low;
+            cardinality = cardinality + 1;
+            return this;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public int rank(char low) {
+            int word = low >>> 6;
+            int count = 0;
+            for (int i = 0; i < word; i++) {
+                count += Long.bitCount(words[i]);
+            }
+            return count + Long.bitCount(words[word] & ((1L << low) - 1));
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] result = new long[WORDS];
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+            return count > MAX_ARRAY_SIZE ? new BitmapContainer(result, count) : toArray(result, count);
+        }
+
+        @Override
+        public Container or(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                int size = array.size;
+                char[] values = array.values;
+                for (int i = 0; i < size; i++) {
+                    result[values[i] >>> 6] |= 1L << values[i];
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < WORDS; i++) {
+                    result[i] |= otherWords[i];
+                }
+            }
+            int count = 0;
+            for (long word : result) {
+                count += Long.bitCount(word);
+            }
+            return new BitmapContainer(result, count);
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                int size = array.size;
+                char[] values = array.values;
+                for (int i = 0; i < size; i++) {
+                    result[values[i] >>> 6] &= ~(1L << values[i]);
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < WORDS; i++) {
+                    result[i] &= ~otherWords[i];
+                }
+            }
+            int count = 0;
+            for (long word : result) {
+                count += Long.bitCount(word);
+            }
+            // Back to an array once sparse, so a chunk emptied by removals does not keep 8 KB
+            return count > MAX_ARRAY_SIZE ? new BitmapContainer(result, count) : toArray(result, count);
+        }
+
+        @Override
+        public Container copy() {
+            int count = cardinality;
+            return new BitmapContainer(words.clone(), count);
+        }
+
+        private static ArrayContainer toArray(long[] words, int count) {
+            char[] values = new char[count];
+            int index = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[index++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+
+    /**
+     * Spliterator over the positions of a range of chunks, in ascending order. The number of positions taken from
+     * each chunk is fixed when the stream is created, so the size is exact even while positions are appended;
+     * splits fall on chunk boundaries near the middle of the remaining positions.
+     */
+    private static final class ChunkSpliterator implements Spliterator.OfInt {
+        private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT |
+                Spliterator.NONNULL | Spliterator.SIZED | Spliterator.SUBSIZED;
+
+        private final Container[] containers;
+        // Positions to take from each chunk
+        private final int[] counts;
+        private final int fence;
+        private int chunk;
+        private long remaining;
+        // Cursor within the current chunk
+        private int taken;
+        private char[] values;
+        private long[] words;
+        private int wordIndex;
+        private long word;
+
+        private ChunkSpliterator(Container[] containers, int[] counts, int origin, int fence) {
+            this.containers = containers;
+            this.counts = counts;
+            this.chunk = origin;
+            this.fence = fence;
+            for (int i = origin; i < fence; i++) {
+                remaining += counts[i];
+            }
+        }
+
+        @Override
+        public OfInt trySplit() {
+            if (taken > 0 || fence - chunk < 2) {
+                return null;
+            }
+            long half = remaining >>> 1;
+            long prefixCount = counts[chunk];
+            int split = chunk + 1;
+            while (split < fence - 1 && prefixCount + counts[split] <= half) {
+                prefixCount += counts[split++];
+            }
+            ChunkSpliterator prefix = new ChunkSpliterator(containers, counts, chunk, split);
+            chunk = split;
+            remaining -= prefix.remaining;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            while (chunk < fence) {
+                if (taken < counts[chunk]) {
+                    action.accept(next());
+                    return true;
+                }
+                chunk++;
+                taken = 0;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            for (; chunk < fence; chunk++, taken = 0) {
+                int count = counts[chunk];
+                while (taken < count) {
+                    action.accept(next());
+                }
+            }
+        }
+
+        /**
+         * Returns the next position of the current chunk, which must have one left.
+         */
+        private int next() {
+            if (taken == 0) {
+                Container container = containers[chunk];
+                values = container instanceof ArrayContainer ? ((ArrayContainer) container).values : null;
+                words = container instanceof BitmapContainer ? ((BitmapContainer) container).words : null;
+                wordIndex = 0;
+                word = words != null ? words[0] : 0;
+            }
+            remaining--;
+            if (values != null) {
+                return chunk << CHUNK_SHIFT | values[taken++];
+            }
+            while (word == 0) {
+                word = words[++wordIndex];
+            }
+            int position = chunk << CHUNK_SHIFT | wordIndex << 6 | Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+            taken++;
+            return position;
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            // Natural order
+            return null;
+        }
+    }
+}
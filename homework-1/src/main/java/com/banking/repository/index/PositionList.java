@@ -0,0 +1,111 @@
+package com.banking.repository.index;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Growable, append-only list of log positions used by the secondary indexes. Positions are appended in
+ * log order, so the list is sorted.
+ * Positions live in chunks of {@value #CHUNK_SIZE}: the first grows by doubling up to that size, so a list with
+ * few positions stays small, and later ones are allocated whole, like the segments of the log, so an append
+ * never copies more than one partial chunk however long the list is.
+ * Appends must be serialized by the caller (the repository's write lock); readers are
+ * lock-free and always see a consistent prefix of the list.
+ */
+public class PositionList {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile int[][] chunks = {new int[INITIAL_CAPACITY]};
+    private volatile int size;
+
+    /**
+     * Appends a position. Not thread-safe with respect to other writers.
+     *
+     * @param position the log position to append
+     */
+    public void add(int position) {
+        int[][] directory = chunks;
+        int index = size;
+        int chunk = index >>> CHUNK_SHIFT;
+        int offset = index & CHUNK_MASK;
+        if (chunk == 0 && offset == directory[0].length) {
+            // Replaced in a new directory, so readers of the old one keep the chunk they had
+            directory = directory.clone();
+            directory[0] = Arrays.copyOf(directory[0], Math.min(offset * 2, CHUNK_SIZE));
+        } else if (chunk == directory.length) {
+            directory = Arrays.copyOf(directory, directory.length * 2);
+        }
+        if (directory[chunk] == null) {
+            directory[chunk] = new int[CHUNK_SIZE];
+        }
+        directory[chunk][offset] = position;
+        // Publish the directory before the size so readers never index past its end
+        chunks = directory;
+        size = index + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        int currentSize = size;
+        if (index < 0 || index >= currentSize) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside the list");
+        }
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Streams the positions published when the stream was created, in insertion order.
+     */
+    public IntStream stream() {
+        int currentSize = size;
+        return stream(chunks, currentSize);
+    }
+
+    /**
+     * Returns how many positions are below a bound, by binary search over the ascending positions.
+     *
+     * @param bound the exclusive upper bound, e.g. a snapshot's log size
+     */
+    public int countBelow(int bound) {
+        int currentSize = size;
+        return countBelow(chunks, currentSize, bound);
+    }
+
+    /**
+     * Streams the published positions below a bound, in insertion order.
+     *
+     * @param bound the exclusive upper bound, e.g. a snapshot's log size
+     */
+    public IntStream streamBelow(int bound) {
+        // Size first: the directory read after it covers at least that many positions
+        int currentSize = size;
+        int[][] directory = chunks;
+        return stream(directory, countBelow(directory, currentSize, bound));
+    }
+
+    private static IntStream stream(int[][] directory, int size) {
+        int chunkCount = (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+        return IntStream.range(0, chunkCount).flatMap(chunk ->
+                Arrays.stream(directory[chunk], 0, Math.min(size - (chunk << CHUNK_SHIFT), CHUNK_SIZE)));
+    }
+
+    private static int countBelow(int[][] directory, int size, int bound) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (directory[mid >>> CHUNK_SHIFT][mid & CHUNK_MASK] < bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,100 @@
+package com.banking.repository.index;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Sort key of the time indexes: orders transactions by timestamp, then by log position, so
+ * transactions sharing a timestamp keep the order they were saved in.
+ * The key holds only primitives, UTC epoch nanoseconds and the position, and costs no more heap than
+ * its own header. Timestamps beyond the range of a long in nanoseconds (before 1677 or after 2262)
+ * saturate, which only widens query bounds, since stored timestamps are assigned when a transaction is saved.
+ * Bound keys sort before or after every transaction sharing their timestamp and are
+ * used to express inclusive range queries over the index.
+ */
+public final class TimeKey implements Comparable<TimeKey> {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long epochNanos;
+    private final int position;
+
+    private TimeKey(long epochNanos, int position) {
+        this.epochNanos = epochNanos;
+        this.position = position;
+    }
+
+    public static TimeKey of(long epochNanos, int position) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Position must not be negative");
+        }
+        return new TimeKey(epochNanos, position);
+    }
+
+    public static TimeKey of(LocalDateTime timestamp, int position) {
+        return of(epochNanos(timestamp), position);
+    }
+
+    /**
+     * Returns a key that sorts before every transaction at the given timestamp.
+     */
+    public static TimeKey lowerBound(LocalDateTime timestamp) {
+        return new TimeKey(epochNanos(timestamp), Integer.MIN_VALUE);
+    }
+
+    /**
+     * Returns a key that sorts after every transaction at the given timestamp.
+     */
+    public static TimeKey upperBound(LocalDateTime timestamp) {
+        return new TimeKey(epochNanos(timestamp), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns UTC epoch nanoseconds, saturated to the range of a long.
+     */
+    public static long epochNanos(LocalDateTime timestamp) {
+        long seconds = timestamp.toEpochSecond(ZoneOffset.UTC);
+        long high = Math.multiplyHigh(seconds, NANOS_PER_SECOND);
+        long low = seconds * NANOS_PER_SECOND;
+        // The product fits a long only if its high half is the sign extension of the low half
+        if (high != low >> 63) {
+            return seconds < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        long nanos = low + timestamp.getNano();
+        return nanos < low ? Long.MAX_VALUE : nanos;
+    }
+
+    public long getEpochNanos() {
+        return epochNanos;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public int compareTo(TimeKey other) {
+        int byTime = Long.compare(epochNanos, other.epochNanos);
+        return byTime != 0 ? byTime : Integer.compare(position, other.position);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TimeKey that = (TimeKey) o;
+        return epochNanos == that.epochNanos && position == that.position;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(epochNanos) + position;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeKey{" +
+                "epochNanos=" + epochNanos +
+                ", position=" + position +
+                '}';
+    }
+}
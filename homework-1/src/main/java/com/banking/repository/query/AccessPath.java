@@ -0,0 +1,14 @@
+package com.banking.repository.query;
+
+/**
+ * Index or scan the query planner reads candidate transactions from.
+ */
+public enum AccessPath {
+    ACCOUNT_INDEX,
+    TYPE_INDEX,
+    STATUS_INDEX,
+    TIME_INDEX,
+    AMOUNT_INDEX,
+    FULL_SCAN,
+    EMPTY
+}
@@ -0,0 +1,42 @@
+package com.banking.repository.query;
+
+import com.banking.repository.index.TimeKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque pagination cursor. Encodes the (timestamp, position) key of the last transaction
+ * on a page; the next page starts strictly after it.
+ */
+public final class PageCursor {
+    private static final char SEPARATOR = '|';
+
+    private PageCursor() {
+    }
+
+    public static String encode(TimeKey key) {
+        String raw = key.getEpochNanos() + String.valueOf(SEPARATOR) + key.getPosition();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode(TimeKey)}.
+     *
+     * @param cursor the opaque cursor
+     * @return the key the next page starts after
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static TimeKey decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return TimeKey.of(Long.parseLong(raw.substring(0, separator)),
+                    Integer.parseInt(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.banking.repository.query;
+
+import com.banking.model.Transaction;
+import com.banking.repository.index.TimeKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Executable plan for a {@link TransactionQuery}: the chosen access path plus the residual
+ * predicates that are evaluated in a single fused pass over its output.
+ * Unpaged plans are safe to run in parallel (see {@link ScanExecutor}); full scans then read
+ * the storage segments directly rather than through log positions.
+ */
+public class QueryPlan {
+    private final AccessPath accessPath;
+    private final long estimatedRows;
+    private final List<String> residualFilters;
+    private final Supplier<IntStream> source;
+    private final Supplier<Stream<Transaction>> scan;
+    private final Function<TimeKey, IntStream> orderedSource;
+    private final IntPredicate positionFilter;
+    private final Predicate<Transaction> residual;
+    private final IntFunction<Transaction> rows;
+    private final TimeKey after;
+    private final Integer limit;
+
+    QueryPlan(AccessPath accessPath, long estimatedRows, List<String> residualFilters,
+              Supplier<IntStream> source, Supplier<Stream<Transaction>> scan,
+              Function<TimeKey, IntStream> orderedSource,
+              IntPredicate positionFilter, Predicate<Transaction> residual, IntFunction<Transaction> rows,
+              TransactionQuery query) {
+        this.accessPath = accessPath;
+        this.estimatedRows = estimatedRows;
+        this.residualFilters = Collections.unmodifiableList(residualFilters);
+        this.source = source;
+        this.scan = scan;
+        this.orderedSource = orderedSource;
+        this.positionFilter = positionFilter;
+        this.residual = residual;
+        this.rows = rows;
+        this.after = query.getAfter();
+        this.limit = query.getLimit();
+    }
+
+    static QueryPlan empty(TransactionQuery query) {
+        return new QueryPlan(AccessPath.EMPTY, 0, Collections.emptyList(), IntStream::empty, null, null, null, null,
+                position -> null, query);
+    }
+
+    /**
+     * Executes the plan lazily; no intermediate collections are built.
+     * Paged plans return at most {@code limit} transactions in (timestamp, position) order after the cursor.
+     *
+     * @return the matching transactions in access-path order, or key order when paged
+     */
+    public Stream<Transaction> execute() {
+        if (limit == null) {
+            if (scan != null) {
+                return residual == null ? scan.get() : scan.get().filter(residual);
+            }
+            return filter(source.get());
+        }
+        if (orderedSource != null) {
+            // The access path is already in key order: seek past the cursor and stop after one page
+            return filter(orderedSource.apply(after)).limit(limit);
+        }
+        return firstInKeyOrder(source.get());
+    }
+
+    /**
+     * Filters candidate positions, materializes the survivors and applies the row-level residual.
+     */
+    private Stream<Transaction> filter(IntStream candidates) {
+        IntStream positions = positionFilter == null ? candidates : candidates.filter(positionFilter);
+        Stream<Transaction> transactions = positions.mapToObj(rows);
+        return residual == null ? transactions : transactions.filter(residual);
+    }
+
+    /**
+     * Selects the first page in key order from an unordered access path with a bounded heap,
+     * keeping memory at O(limit) however deep the page is. Each row's key is built from its timestamp and
+     * the position it was read at.
+     */
+    private Stream<Transaction> firstInKeyOrder(IntStream candidates) {
+        if (limit == 0) {
+            return Stream.empty();
+        }
+        PriorityQueue<Candidate> page = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        IntStream positions = positionFilter == null ? candidates : candidates.filter(positionFilter);
+        positions.forEach(position -> {
+            Transaction row = rows.apply(position);
+            if (residual != null && !residual.test(row)) {
+                return;
+            }
+            TimeKey key = TimeKey.of(row.getTimestamp(), position);
+            if (after != null && key.compareTo(after) <= 0) {
+                return;
+            }
+            page.offer(new Candidate(key, row));
+            if (page.size() > limit) {
+                page.poll();
+            }
+        });
+        List<Candidate> ordered = new ArrayList<>(page);
+        Collections.sort(ordered);
+        return ordered.stream().map(candidate -> candidate.row);
+    }
+
+    /**
+     * Whether the plan returns one page; paged plans stop early and are executed sequentially.
+     */
+    public boolean isPaged() {
+        return limit != null;
+    }
+
+    public AccessPath getAccessPath() {
+        return accessPath;
+    }
+
+    /**
+     * Number of candidate rows the access path produces, before residual filtering.
+     */
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public List<String> getResidualFilters() {
+        return residualFilters;
+    }
+
+    /**
+     * A row of a page being selected, with its key.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        private final TimeKey key;
+        private final Transaction row;
+
+        private Candidate(TimeKey key, Transaction row) {
+            this.key = key;
+            this.row = row;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return key.compareTo(other.key);
+        }
+    }
+}
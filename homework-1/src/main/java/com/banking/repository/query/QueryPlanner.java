@@ -0,0 +1,282 @@
+package com.banking.repository.query;
+
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import com.banking.repository.LedgerSnapshot;
+import com.banking.repository.TransactionRepository;
+import com.banking.repository.index.PositionBitmap;
+import com.banking.repository.index.TimeKey;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Chooses the most selective access path for a {@link TransactionQuery}.
+ * Each applicable index reports how many candidates it would produce; the smallest one wins
+ * and every other criterion becomes a residual predicate applied in the same pass.
+ * The account criterion is checked on dictionary codes by log position, before a row is materialized,
+ * and so are type and status, whose bitmaps are combined with AND/OR and counted exactly.
+ * Paged queries that would otherwise scan the full log walk the time index instead,
+ * which yields the same rows already in (timestamp, position) order. So do paged queries whose type/status bitmap
+ * holds at least one in {@value #PAGED_BITMAP_RATIO} rows of the log: the bitmap is then checked by position
+ * and a page reads about {@code limit * }{@value #PAGED_BITMAP_RATIO} index entries at any depth, instead of
+ * heap-selecting every row in the bitmap. Paged queries on an account seek past the cursor in the account's own
+ * time index, which applies the time range too, and a page costs about {@code limit} entries at any depth.
+ * Since a paged query reads one page, its time window and amount range are counted only up to
+ * {@value #PAGED_COUNT_LIMIT} rows: a longer window is walked in key order anyway, and an amount range is
+ * heap-selected only when it is shorter than that.
+ * When a query has both a time range and amount criteria, the index that was not chosen is intersected
+ * with the chosen one by log position if it is at most {@value #INTERSECTION_RATIO} times larger,
+ * so rows outside either range are never materialized.
+ * A query carrying a {@link LedgerSnapshot} only sees the transactions visible to it, with the statuses they had
+ * when it was opened; since settlement moves positions between status bitmaps in place, its status criterion is
+ * checked on the rows instead.
+ */
+@Component
+public class QueryPlanner {
+    private static final int INTERSECTION_RATIO = 4;
+    private static final int PAGED_BITMAP_RATIO = 8;
+    private static final int PAGED_COUNT_LIMIT = 4096;
+
+    private final TransactionRepository repository;
+
+    public QueryPlanner(TransactionRepository repository) {
+        this.repository = repository;
+    }
+
+    public QueryPlan plan(TransactionQuery query) {
+        LocalDateTime from = query.effectiveFrom();
+        LocalDateTime to = query.effectiveTo();
+        if (query.hasTimeRange() && from.isAfter(to)) {
+            return QueryPlan.empty(query);
+        }
+        BigDecimal minAmount = query.getMinAmount();
+        BigDecimal maxAmount = query.getMaxAmount();
+        String currency = query.getCurrency();
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            return QueryPlan.empty(query);
+        }
+        if (query.getAccountId() != null &&
+                repository.accountCode(query.getAccountId()) == TransactionRepository.NO_ACCOUNT) {
+            // No transaction has ever referenced the account
+            return QueryPlan.empty(query);
+        }
+
+        LedgerSnapshot snapshot = query.getSnapshot();
+        AccessPath accessPath = AccessPath.FULL_SCAN;
+        long totalRows = snapshot != null ? snapshot.size() : repository.count();
+        long estimatedRows = totalRows;
+        Supplier<IntStream> source = () -> repository.positionsAll(snapshot);
+
+        if (query.getAccountId() != null) {
+            long rows = repository.countByAccountId(query.getAccountId(), snapshot);
+            if (rows < estimatedRows) {
+                accessPath = AccessPath.ACCOUNT_INDEX;
+                estimatedRows = rows;
+                source = () -> repository.positionsByAccountId(query.getAccountId(), snapshot);
+            }
+        }
+        // Type and status bitmaps are combined first, so their count is exact for both criteria
+        PositionBitmap bitmap = null;
+        AccessPath bitmapPath = null;
+        if (query.getType() != null) {
+            bitmap = repository.typeBitmap(query.getType());
+            bitmapPath = AccessPath.TYPE_INDEX;
+        }
+        boolean statusByBitmap = query.getStatuses() != null && !query.getStatuses().isEmpty() && snapshot == null;
+        if (statusByBitmap) {
+            PositionBitmap accepted = null;
+            for (TransactionStatus status : query.getStatuses()) {
+                PositionBitmap positions = repository.statusBitmap(status);
+                accepted = accepted == null ? positions : accepted.or(positions);
+            }
+            bitmap = bitmap == null ? accepted : bitmap.and(accepted);
+            bitmapPath = bitmapPath == null ? AccessPath.STATUS_INDEX : bitmapPath;
+        }
+        if (bitmap != null) {
+            long rows = snapshot == null ? bitmap.cardinality() : bitmap.cardinalityBelow(snapshot.size());
+            if (rows < estimatedRows) {
+                accessPath = bitmapPath;
+                estimatedRows = rows;
+                PositionBitmap positions = bitmap;
+                source = () -> snapshot == null ? positions.stream() : positions.streamBelow(snapshot.size());
+            }
+        }
+        // A paged query over a dense bitmap walks the time index in key order (see below), so counting its
+        // window, which costs up to the bitmap's cardinality on every page, is skipped
+        boolean pagedByTime = query.isPaged() && accessPath == bitmapPath &&
+                estimatedRows * PAGED_BITMAP_RATIO >= totalRows;
+        // The account's time index already bounds a paged account query by the window
+        boolean pagedByAccount = query.isPaged() && accessPath == AccessPath.ACCOUNT_INDEX;
+        if (query.hasTimeRange() && !pagedByTime && !pagedByAccount) {
+            // Bounded count: stop as soon as the window is no better than the current best
+            long limit = countLimit(query, estimatedRows);
+            long rows = repository.countByDateRange(from, to, limit);
+            if (rows < limit) {
+                accessPath = AccessPath.TIME_INDEX;
+                estimatedRows = rows;
+                source = () -> repository.positionsByDateRange(from, to, null, snapshot);
+            }
+        }
+        if (query.hasAmountCriteria()) {
+            long limit = countLimit(query, estimatedRows);
+            long rows = repository.countByAmount(currency, minAmount, maxAmount, limit);
+            if (rows < limit) {
+                accessPath = AccessPath.AMOUNT_INDEX;
+                estimatedRows = rows;
+                source = () -> repository.positionsByAmount(currency, minAmount, maxAmount, snapshot);
+            }
+        }
+
+        // Decided on cost, before paging may switch a full scan or a dense bitmap to the time index
+        boolean timeApplied = accessPath == AccessPath.TIME_INDEX;
+        boolean amountApplied = accessPath == AccessPath.AMOUNT_INDEX;
+        if (query.isPaged() && accessPath == AccessPath.FULL_SCAN) {
+            accessPath = AccessPath.TIME_INDEX;
+        }
+        if (pagedByTime && accessPath == bitmapPath) {
+            // The bitmap's density over the whole log stands in for its density within the time range
+            accessPath = AccessPath.TIME_INDEX;
+        }
+        Function<TimeKey, IntStream> orderedSource = null;
+        if (accessPath == AccessPath.TIME_INDEX) {
+            orderedSource = after -> repository.positionsByDateRange(from, to, after, snapshot);
+        } else if (query.isPaged() && accessPath == AccessPath.ACCOUNT_INDEX) {
+            String accountId = query.getAccountId();
+            orderedSource = after -> repository.positionsByAccountId(accountId, from, to, after, snapshot);
+        }
+
+        List<String> residualFilters = new ArrayList<>();
+        if (query.hasTimeRange() && query.hasAmountCriteria() && (timeApplied || amountApplied)) {
+            // Intersect with the other index by position when it is small enough to collect
+            long limit = estimatedRows * INTERSECTION_RATIO + 1;
+            Supplier<IntStream> other = timeApplied ?
+                    () -> repository.positionsByAmount(currency, minAmount, maxAmount, null) :
+                    () -> repository.positionsByDateRange(from, to, null, null);
+            long otherRows = timeApplied ?
+                    repository.countByAmount(currency, minAmount, maxAmount, limit) :
+                    repository.countByDateRange(from, to, limit);
+            if (otherRows < limit) {
+                Supplier<IntStream> driver = source;
+                source = () -> driver.get().filter(memberOf(other.get()));
+                if (orderedSource != null) {
+                    Function<TimeKey, IntStream> orderedDriver = orderedSource;
+                    orderedSource = after -> orderedDriver.apply(after).filter(memberOf(other.get()));
+                }
+                AccessPath intersected = timeApplied ? AccessPath.AMOUNT_INDEX : AccessPath.TIME_INDEX;
+                String criterion = timeApplied ? describeAmount(query) : "timestamp between " + from + " and " + to;
+                residualFilters.add(criterion + " via " + intersected);
+                timeApplied = amountApplied = true;
+            }
+        }
+        if (orderedSource != null && accessPath == AccessPath.ACCOUNT_INDEX) {
+            timeApplied = true;
+        }
+        IntPredicate positionFilter = null;
+        if (query.getAccountId() != null && accessPath != AccessPath.ACCOUNT_INDEX) {
+            // Compared by dictionary code on the position, before the row is materialized
+            int accountCode = repository.accountCode(query.getAccountId());
+            residualFilters.add("accountId = " + query.getAccountId());
+            positionFilter = position -> repository.involvesAccount(position, accountCode);
+        }
+        if (bitmap != null) {
+            // Type and status are checked on the bitmaps by position; the chosen bitmap already applied both
+            if (query.getType() != null && accessPath != AccessPath.TYPE_INDEX) {
+                residualFilters.add("type = " + query.getType() + " via " + AccessPath.TYPE_INDEX);
+            }
+            if (statusByBitmap && accessPath != AccessPath.STATUS_INDEX) {
+                residualFilters.add(describeStatuses(query.getStatuses()) + " via " + AccessPath.STATUS_INDEX);
+            }
+            if (accessPath != bitmapPath) {
+                IntPredicate inBitmap = bitmap::contains;
+                positionFilter = positionFilter == null ? inBitmap : positionFilter.and(inBitmap);
+            }
+        }
+        List<Predicate<Transaction>> predicates = new ArrayList<>();
+        if (query.getStatuses() != null && !query.getStatuses().isEmpty() && !statusByBitmap) {
+            Set<TransactionStatus> statuses = query.getStatuses();
+            residualFilters.add(describeStatuses(statuses));
+            predicates.add(t -> statuses.contains(t.getStatus()));
+        }
+        if (query.hasTimeRange() && !timeApplied && accessPath != AccessPath.TIME_INDEX) {
+            residualFilters.add("timestamp between " + from + " and " + to);
+            predicates.add(t -> !t.getTimestamp().isBefore(from) && !t.getTimestamp().isAfter(to));
+        }
+        if (query.hasAmountCriteria() && !amountApplied) {
+            residualFilters.add(describeAmount(query));
+            predicates.add(t -> (currency == null || currency.equals(t.getCurrency())) &&
+                    (minAmount == null || t.getAmount().compareTo(minAmount) >= 0) &&
+                    (maxAmount == null || t.getAmount().compareTo(maxAmount) <= 0));
+        }
+
+        // A full scan with no position-level filter reads rows segment by segment instead of by position
+        Supplier<Stream<Transaction>> scan = accessPath == AccessPath.FULL_SCAN && positionFilter == null ?
+                () -> repository.scanAll(snapshot) : null;
+
+        return new QueryPlan(accessPath, estimatedRows, residualFilters, source, scan, orderedSource,
+                positionFilter, combine(predicates), position -> repository.getAt(position, snapshot), query);
+    }
+
+    /**
+     * Bounds an index count: by the current best estimate, and for a paged query also by
+     * {@value #PAGED_COUNT_LIMIT}, so planning a page does not walk a whole window or amount range.
+     */
+    private static long countLimit(TransactionQuery query, long estimatedRows) {
+        return query.isPaged() ? Math.min(estimatedRows, PAGED_COUNT_LIMIT) : estimatedRows;
+    }
+
+    /**
+     * Collects positions into a sorted array and tests membership by binary search.
+     */
+    private static IntPredicate memberOf(IntStream positions) {
+        int[] members = positions.toArray();
+        Arrays.sort(members);
+        return position -> Arrays.binarySearch(members, position) >= 0;
+    }
+
+    private static String describeStatuses(Set<TransactionStatus> statuses) {
+        return statuses.size() == 1 ? "status = " + statuses.iterator().next() : "status in " + statuses;
+    }
+
+    private static String describeAmount(TransactionQuery query) {
+        List<String> criteria = new ArrayList<>();
+        if (query.getCurrency() != null) {
+            criteria.add("currency = " + query.getCurrency());
+        }
+        if (query.getMinAmount() != null) {
+            criteria.add("amount >= " + query.getMinAmount().toPlainString());
+        }
+        if (query.getMaxAmount() != null) {
+            criteria.add("amount <= " + query.getMaxAmount().toPlainString());
+        }
+        return String.join(" and ", criteria);
+    }
+
+    private static Predicate<Transaction> combine(List<Predicate<Transaction>> predicates) {
+        if (predicates.isEmpty()) {
+            return null;
+        }
+        if (predicates.size() == 1) {
+            return predicates.get(0);
+        }
+        List<Predicate<Transaction>> all = List.copyOf(predicates);
+        return t -> {
+            for (Predicate<Transaction> predicate : all) {
+                if (!predicate.test(t)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+}
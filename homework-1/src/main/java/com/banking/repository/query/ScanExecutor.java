@@ -0,0 +1,77 @@
+package com.banking.repository.query;
+
+import com.banking.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs {@link QueryPlan}s to completion, in parallel when they are large enough to pay for it.
+ *
+ * A plan whose access path produces at least {@code parallelThreshold} candidate rows is executed as a
+ * parallel stream on a dedicated fork/join pool, so long scans use every core without competing with the
+ * common pool; results keep the plan's order. Smaller plans, and paged plans that stop after one page,
+ * run sequentially on the calling thread with no scheduling overhead, as does everything when only one
+ * scan thread is available.
+ */
+@Component
+public class ScanExecutor {
+    private final long parallelThreshold;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelThreshold the candidate row count from which plans run in parallel; 0 disables parallel scans
+     * @param parallelism the number of scan threads, or 0 for one per available processor
+     */
+    public ScanExecutor(@Value("${banking.scan.parallel-threshold:50000}") long parallelThreshold,
+                        @Value("${banking.scan.parallelism:0}") int parallelism) {
+        if (parallelThreshold < 0 || parallelism < 0) {
+            throw new IllegalArgumentException("Scan threshold and parallelism must not be negative");
+        }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.parallelThreshold = parallelThreshold;
+        // A single scan thread would only add a hand-off to the sequential path
+        this.pool = parallelThreshold == 0 || threads == 1 ? null :
+                new ForkJoinPool(threads, ScanExecutor::newWorker, null, false);
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("transaction-scan-" + worker.getPoolIndex());
+        return worker;
+    }
+
+    /**
+     * Executes a plan and maps every matching transaction, keeping the plan's order.
+     *
+     * @param plan the plan to execute
+     * @param mapper applied to each matching transaction; called concurrently for parallel plans
+     * @return the mapped results
+     */
+    public <R> List<R> collect(QueryPlan plan, Function<Transaction, R> mapper) {
+        if (!isParallel(plan)) {
+            return plan.execute().map(mapper).collect(Collectors.toList());
+        }
+        // Streams made parallel inside a fork/join task split their work on that task's pool
+        return pool.submit(() -> plan.execute().parallel().map(mapper).collect(Collectors.toList())).join();
+    }
+
+    /**
+     * Returns whether {@link #collect} would execute a plan in parallel.
+     */
+    public boolean isParallel(QueryPlan plan) {
+        return pool != null && !plan.isPaged() && plan.getEstimatedRows() >= parallelThreshold;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
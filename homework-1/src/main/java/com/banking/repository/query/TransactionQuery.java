@@ -0,0 +1,160 @@
+package com.banking.repository.query;
+
+import com.banking.model.TransactionStatus;
+import com.banking.model.TransactionType;
+import com.banking.repository.LedgerSnapshot;
+import com.banking.repository.index.TimeKey;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Filter criteria for a transaction listing. Every criterion is optional;
+ * {@code null} means the criterion is not applied.
+ * Amount bounds are inclusive and compared in each transaction's own currency.
+ * A query with a limit is paged: results are ordered by (timestamp, position) and start after the cursor key.
+ * A query with a snapshot reads the ledger as of that snapshot.
+ */
+public class TransactionQuery {
+    private String accountId;
+    private TransactionType type;
+    private Set<TransactionStatus> statuses;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String currency;
+    private TimeKey after;
+    private Integer limit;
+    private LedgerSnapshot snapshot;
+
+    public TransactionQuery() {
+    }
+
+    public TransactionQuery(String accountId, TransactionType type, LocalDateTime from, LocalDateTime to) {
+        this.accountId = accountId;
+        this.type = type;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the accepted statuses; a transaction matches when it has any of them.
+     */
+    public Set<TransactionStatus> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Set<TransactionStatus> statuses) {
+        this.statuses = statuses;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public TimeKey getAfter() {
+        return after;
+    }
+
+    public void setAfter(TimeKey after) {
+        this.after = after;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public LedgerSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(LedgerSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public boolean isPaged() {
+        return limit != null;
+    }
+
+    public boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+
+    /**
+     * Whether the query filters on amount or currency, the criteria served by the amount index.
+     */
+    public boolean hasAmountCriteria() {
+        return minAmount != null || maxAmount != null || currency != null;
+    }
+
+    /**
+     * Lower bound of the time range, or {@link LocalDateTime#MIN} if open.
+     */
+    public LocalDateTime effectiveFrom() {
+        return from != null ? from : LocalDateTime.MIN;
+    }
+
+    /**
+     * Upper bound of the time range, or {@link LocalDateTime#MAX} if open.
+     */
+    public LocalDateTime effectiveTo() {
+        return to != null ? to : LocalDateTime.MAX;
+    }
+}
@@ -0,0 +1,51 @@
+package com.banking.repository.storage;
+
+/**
+ * Growable int column with one value per log position, e.g. a dictionary code per row.
+ * Values live in fixed-size chunks, like the segments of the log, so an append never copies
+ * earlier values; only the directory of chunk references is replaced when it fills up.
+ * Appends must be serialized by the caller (the store's append lock); readers are
+ * lock-free and may read any position published before them.
+ */
+public class IntColumn {
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CHUNKS = 16;
+
+    private volatile int[][] chunks = new int[INITIAL_CHUNKS][];
+    private volatile int size;
+
+    /**
+     * Appends the value of the next position. Not thread-safe with respect to other writers.
+     */
+    public void add(int value) {
+        int[][] directory = chunks;
+        int index = size;
+        int chunk = index >>> CHUNK_SHIFT;
+        if (chunk == directory.length) {
+            int[][] grown = new int[directory.length * 2][];
+            System.arraycopy(directory, 0, grown, 0, directory.length);
+            directory = grown;
+        }
+        if (directory[chunk] == null) {
+            directory[chunk] = new int[CHUNK_SIZE];
+        }
+        directory[chunk][index & CHUNK_MASK] = value;
+        // Publish the directory before the size so readers never index past its end
+        chunks = directory;
+        size = index + 1;
+    }
+
+    public int get(int position) {
+        int currentSize = size;
+        if (position < 0 || position >= currentSize) {
+            throw new IndexOutOfBoundsException("Position " + position + " is outside the column");
+        }
+        return chunks[position >>> CHUNK_SHIFT][position & CHUNK_MASK];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,18 @@
+package com.banking.repository.storage;
+
+/**
+ * The dictionaries account IDs and currency codes are encoded with, shared by a {@link TransactionStore}
+ * and the indexes built over it, so each string is interned once and a code means the same everywhere.
+ */
+public class LedgerDictionaries {
+    private final StringDictionary accounts = new StringDictionary();
+    private final StringDictionary currencies = new StringDictionary();
+
+    public StringDictionary accounts() {
+        return accounts;
+    }
+
+    public StringDictionary currencies() {
+        return currencies;
+    }
+}
@@ -0,0 +1,349 @@
+package com.banking.repository.storage;
+
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import com.banking.model.TransactionType;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transaction store that keeps rows in off-heap columns instead of as objects, so the ledger adds
+ * little to the Java heap and to garbage collection work.
+ *
+ * Each segment holds one direct buffer per column: the UUID as two longs, account and currency
+ * dictionary codes, the amount as a long unscaled value with its scale, the timestamp as UTC epoch
+ * nanoseconds, and a packed type/status byte. That is {@value #ROW_BYTES} bytes per row.
+ * {@link Transaction} objects are materialized on read. Rows that do not fit the columns (non-UUID
+ * ids, amounts beyond a long, timestamps outside the epoch-nanosecond range) are kept as objects; their
+ * account code columns are still written, so {@link #fromAccountCode} answers for every row.
+ * Account IDs and currency codes are encoded with the {@link LedgerDictionaries} shared with the repository.
+ * Like {@link TransactionLog}, appends are single-writer and readers are lock-free.
+ */
+public class OffHeapTransactionStore implements TransactionStore {
+    public static final int DEFAULT_SEGMENT_SHIFT = 14;
+
+    static final int ROW_BYTES = 2 * Long.BYTES + 2 * Integer.BYTES + Long.BYTES + Long.BYTES +
+            Short.BYTES + 2 * Byte.BYTES;
+
+    private static final int STATUS_SHIFT = 2;
+    private static final int FIELD_MASK = 0x3;
+    private static final int ON_HEAP = 0x80;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final int segmentShift;
+    private final int segmentSize;
+    private final int segmentMask;
+    private final LedgerDictionaries dictionaries;
+    private final StringDictionary accounts;
+    private final StringDictionary currencies;
+    // Rows that cannot be stored in columns, by position
+    private final Map<Integer, Transaction> onHeapRows = new ConcurrentHashMap<>();
+
+    private volatile Segment[] segments;
+    private volatile int size;
+
+    public OffHeapTransactionStore() {
+        this(new LedgerDictionaries());
+    }
+
+    public OffHeapTransactionStore(LedgerDictionaries dictionaries) {
+        this(DEFAULT_SEGMENT_SHIFT, dictionaries);
+    }
+
+    /**
+     * Creates a store whose segments hold {@code 2^segmentShift} rows each.
+     *
+     * @param segmentShift log2 of the segment size
+     * @param dictionaries the dictionaries to encode account IDs and currency codes with
+     */
+    public OffHeapTransactionStore(int segmentShift, LedgerDictionaries dictionaries) {
+        if (segmentShift < 1 || segmentShift > 24) {
+            throw new IllegalArgumentException("Segment shift must be between 1 and 24");
+        }
+        this.segmentShift = segmentShift;
+        this.segmentSize = 1 << segmentShift;
+        this.segmentMask = segmentSize - 1;
+        this.dictionaries = dictionaries;
+        this.accounts = dictionaries.accounts();
+        this.currencies = dictionaries.currencies();
+        this.segments = new Segment[16];
+    }
+
+    @Override
+    public synchronized int appendAll(List<Transaction> batch) {
+        int first = size;
+        if ((long) first + batch.size() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Transaction log is full");
+        }
+        for (Transaction transaction : batch) {
+            if (transaction == null) {
+                throw new IllegalArgumentException("Transaction must not be null");
+            }
+        }
+
+        Segment[] directory = segments;
+        int position = first;
+        for (Transaction transaction : batch) {
+            int segmentIndex = position >>> segmentShift;
+            if (segmentIndex == directory.length) {
+                Segment[] grown = new Segment[directory.length * 2];
+                System.arraycopy(directory, 0, grown, 0, directory.length);
+                directory = grown;
+            }
+            if (directory[segmentIndex] == null) {
+                directory[segmentIndex] = new Segment(segmentSize);
+            }
+            write(directory[segmentIndex], position, transaction);
+            position++;
+        }
+
+        // Publish the directory before the size so a reader that sees the new size also sees the rows
+        segments = directory;
+        size = position;
+        return first;
+    }
+
+    private void write(Segment segment, int position, Transaction transaction) {
+        int row = position & segmentMask;
+        UUID id = parseUuid(transaction.getId());
+        BigDecimal amount = transaction.getAmount();
+        long epochNanos = toEpochNanos(transaction.getTimestamp());
+        // The currency dictionary is shared, so a code may already exist yet not fit the short column
+        int currencyCode = transaction.getCurrency() != null ? currencies.encode(transaction.getCurrency()) : -1;
+        boolean fitsColumns = id != null && amount != null && amount.scale() >= 0 &&
+                amount.scale() <= Byte.MAX_VALUE && amount.unscaledValue().bitLength() < Long.SIZE &&
+                epochNanos != Long.MIN_VALUE && currencyCode >= 0 && currencyCode <= Short.MAX_VALUE &&
+                transaction.getType() != null && transaction.getStatus() != null;
+
+        segment.fromAccount.put(row, encodeAccount(transaction.getFromAccount()));
+        segment.toAccount.put(row, encodeAccount(transaction.getToAccount()));
+        if (!fitsColumns) {
+            onHeapRows.put(position, transaction);
+            segment.flags.put(row, (byte) ON_HEAP);
+            return;
+        }
+
+        segment.idHigh.put(row, id.getMostSignificantBits());
+        segment.idLow.put(row, id.getLeastSignificantBits());
+        segment.amount.put(row, amount.unscaledValue().longValue());
+        segment.scale.put(row, (byte) amount.scale());
+        segment.timestamp.put(row, epochNanos);
+        segment.currency.put(row, (short) currencyCode);
+        segment.flags.put(row, (byte) (transaction.getType().ordinal() |
+                transaction.getStatus().ordinal() << STATUS_SHIFT));
+    }
+
+    private int encodeAccount(String accountId) {
+        return accountId == null ? NO_ACCOUNT : accounts.encode(accountId);
+    }
+
+    @Override
+    public LedgerDictionaries dictionaries() {
+        return dictionaries;
+    }
+
+    @Override
+    public Transaction get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " is outside the log");
+        }
+        return read(segments, position);
+    }
+
+    private Transaction read(Segment[] directory, int position) {
+        Segment segment = directory[position >>> segmentShift];
+        int row = position & segmentMask;
+        int flags = segment.flags.get(row);
+        if ((flags & ON_HEAP) != 0) {
+            return onHeapRows.get(position);
+        }
+
+        long epochNanos = segment.timestamp.get(row);
+        return new Transaction(
+                new UUID(segment.idHigh.get(row), segment.idLow.get(row)).toString(),
+                decodeAccount(segment.fromAccount.get(row)),
+                decodeAccount(segment.toAccount.get(row)),
+                BigDecimal.valueOf(segment.amount.get(row), segment.scale.get(row)),
+                currencies.decode(segment.currency.get(row)),
+                TYPES[flags & FIELD_MASK],
+                LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                        (int) Math.floorMod(epochNanos, NANOS_PER_SECOND), ZoneOffset.UTC),
+                STATUSES[flags >>> STATUS_SHIFT & FIELD_MASK]);
+    }
+
+    @Override
+    public synchronized void updateStatus(int position, TransactionStatus status) {
+        Transaction current = get(position);
+        Segment segment = segments[position >>> segmentShift];
+        int row = position & segmentMask;
+        int flags = segment.flags.get(row);
+        if ((flags & ON_HEAP) != 0) {
+            onHeapRows.put(position, current.withStatus(status));
+            return;
+        }
+        // A single byte write, so readers see the old or the new status
+        segment.flags.put(row, (byte) (flags & ~(FIELD_MASK << STATUS_SHIFT) | status.ordinal() << STATUS_SHIFT));
+    }
+
+    @Override
+    public boolean hasId(int position, String id) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " is outside the log");
+        }
+        Segment segment = segments[position >>> segmentShift];
+        int row = position & segmentMask;
+        if ((segment.flags.get(row) & ON_HEAP) != 0) {
+            return id.equals(onHeapRows.get(position).getId());
+        }
+        // Rows kept off-heap have canonical UUID IDs, so any other form cannot match
+        UUID uuid = parseUuid(id);
+        return uuid != null && uuid.getMostSignificantBits() == segment.idHigh.get(row) &&
+                uuid.getLeastSignificantBits() == segment.idLow.get(row);
+    }
+
+    @Override
+    public int fromAccountCode(int position) {
+        return accountCodeColumn(position, true);
+    }
+
+    @Override
+    public int toAccountCode(int position) {
+        return accountCodeColumn(position, false);
+    }
+
+    private int accountCodeColumn(int position, boolean from) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " is outside the log");
+        }
+        Segment segment = segments[position >>> segmentShift];
+        int row = position & segmentMask;
+        return from ? segment.fromAccount.get(row) : segment.toAccount.get(row);
+    }
+
+    private String decodeAccount(int code) {
+        return code == NO_ACCOUNT ? null : accounts.decode(code);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Transaction> iterator(int limit) {
+        int end = Math.min(limit, size);
+        Segment[] directory = segments;
+        return new Iterator<>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < end;
+            }
+
+            @Override
+            public Transaction next() {
+                if (position >= end) {
+                    throw new NoSuchElementException();
+                }
+                return read(directory, position++);
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Transaction> spliterator(int origin, int fence) {
+        int end = Math.min(fence, size);
+        if (origin < 0 || origin > end) {
+            throw new IndexOutOfBoundsException("Range " + origin + ".." + fence + " is outside the log");
+        }
+        Segment[] directory = segments;
+        return new SegmentSpliterator(position -> read(directory, position), segmentShift, origin, end);
+    }
+
+    /**
+     * Returns the number of off-heap bytes reserved for columns.
+     */
+    public long offHeapBytes() {
+        Segment[] directory = segments;
+        long allocated = 0;
+        for (Segment segment : directory) {
+            if (segment != null) {
+                allocated += (long) segmentSize * ROW_BYTES;
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Returns UTC epoch nanoseconds, or {@link Long#MIN_VALUE} when the timestamp is out of range.
+     */
+    private static long toEpochNanos(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Math.addExact(Math.multiplyExact(timestamp.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+                    timestamp.getNano());
+        } catch (ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Returns the UUID when the id is in canonical lowercase form, so reading reproduces it exactly.
+     */
+    private static UUID parseUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Column buffers of one segment, allocated off-heap.
+     */
+    private static final class Segment {
+        private final LongBuffer idHigh;
+        private final LongBuffer idLow;
+        private final IntBuffer fromAccount;
+        private final IntBuffer toAccount;
+        private final LongBuffer amount;
+        private final LongBuffer timestamp;
+        private final ShortBuffer currency;
+        private final ByteBuffer scale;
+        private final ByteBuffer flags;
+
+        private Segment(int rows) {
+            idHigh = ByteBuffer.allocateDirect(rows * Long.BYTES).asLongBuffer();
+            idLow = ByteBuffer.allocateDirect(rows * Long.BYTES).asLongBuffer();
+            fromAccount = ByteBuffer.allocateDirect(rows * Integer.BYTES).asIntBuffer();
+            toAccount = ByteBuffer.allocateDirect(rows * Integer.BYTES).asIntBuffer();
+            amount = ByteBuffer.allocateDirect(rows * Long.BYTES).asLongBuffer();
+            timestamp = ByteBuffer.allocateDirect(rows * Long.BYTES).asLongBuffer();
+            currency = ByteBuffer.allocateDirect(rows * Short.BYTES).asShortBuffer();
+            scale = ByteBuffer.allocateDirect(rows);
+            flags = ByteBuffer.allocateDirect(rows);
+        }
+    }
+}
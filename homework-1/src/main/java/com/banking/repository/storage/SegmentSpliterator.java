@@ -0,0 +1,86 @@
+package com.banking.repository.storage;
+
+import com.banking.model.Transaction;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Spliterator over a range of log positions of a segmented {@link TransactionStore}.
+ * It splits at the segment boundary nearest the middle of its range, so parallel workers read whole
+ * segments and never share one; a range inside a single segment is split in half. The range is
+ * exactly sized at every level, so parallel streams divide the work evenly without buffering.
+ */
+final class SegmentSpliterator implements Spliterator<Transaction> {
+    // Not IMMUTABLE: settlement changes the status of published rows in place
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED |
+            Spliterator.NONNULL;
+
+    private final IntFunction<Transaction> rows;
+    private final int segmentShift;
+    private int position;
+    private final int fence;
+
+    /**
+     * @param rows reads the row at a position from the published segments
+     * @param segmentShift log2 of the segment size
+     * @param origin the first position, inclusive
+     * @param fence the last position, exclusive
+     */
+    SegmentSpliterator(IntFunction<Transaction> rows, int segmentShift, int origin, int fence) {
+        this.rows = rows;
+        this.segmentShift = segmentShift;
+        this.position = origin;
+        this.fence = fence;
+    }
+
+    @Override
+    public Spliterator<Transaction> trySplit() {
+        int remaining = fence - position;
+        if (remaining < 2) {
+            return null;
+        }
+        int middle = position + (remaining >>> 1);
+        int lower = middle >>> segmentShift << segmentShift;
+        int upper = lower + (1 << segmentShift);
+        int split;
+        if (lower > position && (upper >= fence || middle - lower <= upper - middle)) {
+            split = lower;
+        } else if (upper < fence) {
+            split = upper;
+        } else {
+            split = middle;
+        }
+        SegmentSpliterator prefix = new SegmentSpliterator(rows, segmentShift, position, split);
+        position = split;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Transaction> action) {
+        if (position >= fence) {
+            return false;
+        }
+        action.accept(rows.apply(position++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Transaction> action) {
+        int end = fence;
+        for (int current = position; current < end; current++) {
+            action.accept(rows.apply(current));
+        }
+        position = end;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - position;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+}
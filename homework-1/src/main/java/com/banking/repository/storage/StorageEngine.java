@@ -0,0 +1,11 @@
+package com.banking.repository.storage;
+
+/**
+ * Where the repository keeps transaction rows.
+ */
+public enum StorageEngine {
+    /** Transaction objects on the Java heap ({@link TransactionLog}). */
+    HEAP,
+    /** Encoded rows in off-heap columns ({@link OffHeapTransactionStore}). */
+    OFF_HEAP
+}
@@ -0,0 +1,63 @@
+package com.banking.repository.storage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense int codes to strings so columns can store a code instead of a string per row.
+ * Codes are never reassigned. Encoding is single-writer; decoding is lock-free and safe for any
+ * code published before the reader observed it.
+ */
+public class StringDictionary {
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    // Code-to-string table; only the reference is replaced when it needs to grow
+    private volatile String[] values = new String[16];
+    private volatile int size;
+
+    /**
+     * Returns the code of a string, assigning the next free code if it has none yet.
+     *
+     * @param value the string to encode
+     * @return its code
+     */
+    public synchronized int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int next = size;
+        String[] table = values;
+        if (next == table.length) {
+            String[] grown = new String[table.length * 2];
+            System.arraycopy(table, 0, grown, 0, table.length);
+            table = grown;
+        }
+        table[next] = value;
+        // Publish the table before the size, and both before the code becomes findable
+        values = table;
+        size = next + 1;
+        codes.put(value, next);
+        return next;
+    }
+
+    /**
+     * Returns the code of a string without assigning one.
+     *
+     * @param value the string to look up
+     * @return its code, or -1 if it has never been encoded
+     */
+    public int lookup(String value) {
+        return codes.getOrDefault(value, -1);
+    }
+
+    public String decode(int code) {
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("Unknown dictionary code " + code);
+        }
+        return values[code];
+    }
+
+    public int size() {
+        return size;
+    }
+}
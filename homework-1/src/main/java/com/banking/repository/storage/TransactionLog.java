@@ -0,0 +1,179 @@
+package com.banking.repository.storage;
+
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
+/**
+ * Append-only, on-heap transaction log split into fixed-size segments; the default {@link TransactionStore}.
+ * Appends write into the current segment and never copy existing entries, so they take
+ * constant time regardless of ledger size. Readers are lock-free: they read the published
+ * size once and iterate that prefix, which is never modified after publication.
+ * The account dictionary codes of each row are kept in two int columns, so they can be compared without
+ * reading the row.
+ */
+public class TransactionLog implements TransactionStore {
+    public static final int DEFAULT_SEGMENT_SHIFT = 12;
+
+    // Release/acquire access to row slots, for rows replaced after publication by updateStatus
+    private static final VarHandle ROWS = MethodHandles.arrayElementVarHandle(Transaction[].class);
+
+    private final int segmentShift;
+    private final int segmentSize;
+    private final int segmentMask;
+    private final LedgerDictionaries dictionaries;
+    private final IntColumn fromAccountCodes = new IntColumn();
+    private final IntColumn toAccountCodes = new IntColumn();
+
+    // Directory of segments; only the reference is replaced when it needs to grow.
+    private volatile Transaction[][] segments;
+    // Number of published entries; written last on append so readers never see a partial entry.
+    private volatile int size;
+
+    public TransactionLog() {
+        this(new LedgerDictionaries());
+    }
+
+    public TransactionLog(LedgerDictionaries dictionaries) {
+        this(DEFAULT_SEGMENT_SHIFT, dictionaries);
+    }
+
+    /**
+     * Creates a log whose segments hold {@code 2^segmentShift} entries each.
+     *
+     * @param segmentShift log2 of the segment size
+     * @param dictionaries the dictionaries to encode account IDs and currency codes with
+     */
+    public TransactionLog(int segmentShift, LedgerDictionaries dictionaries) {
+        if (segmentShift < 1 || segmentShift > 24) {
+            throw new IllegalArgumentException("Segment shift must be between 1 and 24");
+        }
+        this.segmentShift = segmentShift;
+        this.segmentSize = 1 << segmentShift;
+        this.segmentMask = segmentSize - 1;
+        this.dictionaries = dictionaries;
+        this.segments = new Transaction[16][];
+    }
+
+    @Override
+    public synchronized int appendAll(List<Transaction> batch) {
+        int first = size;
+        if ((long) first + batch.size() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Transaction log is full");
+        }
+        for (Transaction transaction : batch) {
+            if (transaction == null) {
+                throw new IllegalArgumentException("Transaction must not be null");
+            }
+        }
+
+        Transaction[][] directory = segments;
+        int position = first;
+        for (Transaction transaction : batch) {
+            int segmentIndex = position >>> segmentShift;
+            if (segmentIndex == directory.length) {
+                Transaction[][] grown = new Transaction[directory.length * 2][];
+                System.arraycopy(directory, 0, grown, 0, directory.length);
+                directory = grown;
+            }
+            if (directory[segmentIndex] == null) {
+                directory[segmentIndex] = new Transaction[segmentSize];
+            }
+            directory[segmentIndex][position & segmentMask] = transaction;
+            fromAccountCodes.add(encodeAccount(transaction.getFromAccount()));
+            toAccountCodes.add(encodeAccount(transaction.getToAccount()));
+            position++;
+        }
+
+        // Publish the directory before the size so a reader that sees the new size also sees the entries
+        segments = directory;
+        size = position;
+        return first;
+    }
+
+    private int encodeAccount(String accountId) {
+        return accountId == null ? NO_ACCOUNT : dictionaries.accounts().encode(accountId);
+    }
+
+    @Override
+    public LedgerDictionaries dictionaries() {
+        return dictionaries;
+    }
+
+    @Override
+    public Transaction get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " is outside the log");
+        }
+        return row(segments, position);
+    }
+
+    /**
+     * Reads a row slot with acquire semantics, pairing with the release store in {@link #updateStatus}.
+     */
+    private Transaction row(Transaction[][] directory, int position) {
+        return (Transaction) ROWS.getAcquire(directory[position >>> segmentShift], position & segmentMask);
+    }
+
+    @Override
+    public synchronized void updateStatus(int position, TransactionStatus status) {
+        Transaction[] segment = segments[position >>> segmentShift];
+        Transaction current = get(position);
+        // Replaced rather than mutated, so rows handed out earlier do not change under their readers. The release
+        // store orders the construction of the replacement before the slot write, so a reader whose acquire read
+        // sees the replacement also sees all of its fields
+        ROWS.setRelease(segment, position & segmentMask, current.withStatus(status));
+    }
+
+    @Override
+    public int fromAccountCode(int position) {
+        return fromAccountCodes.get(position);
+    }
+
+    @Override
+    public int toAccountCode(int position) {
+        return toAccountCodes.get(position);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Transaction> iterator(int limit) {
+        int end = Math.min(limit, size);
+        Transaction[][] directory = segments;
+        return new Iterator<>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < end;
+            }
+
+            @Override
+            public Transaction next() {
+                if (position >= end) {
+                    throw new NoSuchElementException();
+                }
+                return row(directory, position++);
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Transaction> spliterator(int origin, int fence) {
+        int end = Math.min(fence, size);
+        if (origin < 0 || origin > end) {
+            throw new IndexOutOfBoundsException("Range " + origin + ".." + fence + " is outside the log");
+        }
+        Transaction[][] directory = segments;
+        return new SegmentSpliterator(position -> row(directory, position), segmentShift, origin, end);
+    }
+}
@@ -0,0 +1,130 @@
+package com.banking.repository.storage;
+
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Append-only storage of transactions addressed by position.
+ * Implementations have a single writer and lock-free readers: a reader sees a prefix of the log
+ * that is never modified after it has been published, except for the status of a row, which
+ * settlement changes in place with {@link #updateStatus}.
+ */
+public interface TransactionStore extends Iterable<Transaction> {
+
+    /** Dictionary code standing for a missing account, e.g. the source of a deposit. */
+    int NO_ACCOUNT = -1;
+
+    /**
+     * Returns the dictionaries the store encodes account IDs and currency codes with. Indexes over the store
+     * encode with the same instances, so their codes match {@link #fromAccountCode} and {@link #toAccountCode}.
+     */
+    LedgerDictionaries dictionaries();
+
+    /**
+     * Appends a transaction to the end of the store.
+     *
+     * @param transaction the transaction to append
+     * @return the position of the appended transaction
+     */
+    default int append(Transaction transaction) {
+        return appendAll(List.of(transaction));
+    }
+
+    /**
+     * Appends a batch of transactions and publishes them together, so readers see either
+     * none or all of the batch.
+     *
+     * @param batch the transactions to append, in order
+     * @return the position of the first appended transaction
+     */
+    int appendAll(List<Transaction> batch);
+
+    /**
+     * Returns the transaction stored at a position.
+     *
+     * @param position the log position
+     * @return the transaction at that position
+     */
+    Transaction get(int position);
+
+    /**
+     * Returns whether the transaction at a position has an ID. Lets ID lookups confirm a match without
+     * keeping ID strings in the index; stores that do not keep the string compare it in their own encoding.
+     *
+     * @param position the log position
+     * @param id the transaction ID
+     * @return whether the row's ID equals {@code id}
+     */
+    default boolean hasId(int position, String id) {
+        return id.equals(get(position).getId());
+    }
+
+    /**
+     * Changes the status of a published transaction. Readers see the row either before or after the change,
+     * never a mix; transactions already returned by {@link #get} keep their status.
+     * Not thread-safe with respect to other writers.
+     *
+     * @param position the log position
+     * @param status the new status
+     */
+    void updateStatus(int position, TransactionStatus status);
+
+    /**
+     * Returns the account dictionary code of the source of the transaction at a position, without materializing it.
+     *
+     * @param position the log position
+     * @return the code, or {@link #NO_ACCOUNT} if the transaction has no source account
+     */
+    int fromAccountCode(int position);
+
+    /**
+     * Returns the account dictionary code of the destination of the transaction at a position, without
+     * materializing it.
+     *
+     * @param position the log position
+     * @return the code, or {@link #NO_ACCOUNT} if the transaction has no destination account
+     */
+    int toAccountCode(int position);
+
+    int size();
+
+    /**
+     * Iterates the entries that were published when the iterator was created.
+     * Later appends are not visible to the iterator.
+     */
+    @Override
+    default Iterator<Transaction> iterator() {
+        return iterator(size());
+    }
+
+    /**
+     * Iterates the first {@code limit} entries of the store.
+     *
+     * @param limit the exclusive end position, at most the current size
+     * @return an iterator over positions {@code [0, limit)}
+     */
+    Iterator<Transaction> iterator(int limit);
+
+    /**
+     * Returns a spliterator over a range of published positions that splits along storage segments,
+     * for scans that run in parallel.
+     *
+     * @param origin the first position, inclusive
+     * @param fence the last position, exclusive, at most the current size
+     * @return a sized, ordered spliterator over positions {@code [origin, fence)}
+     */
+    Spliterator<Transaction> spliterator(int origin, int fence);
+
+    /**
+     * Streams the entries that were published when the stream was created, in log order.
+     * The stream is sequential; call {@link Stream#parallel()} on it to scan segments in parallel.
+     */
+    default Stream<Transaction> stream() {
+        return StreamSupport.stream(spliterator(0, size()), false);
+    }
+}
@@ -0,0 +1,60 @@
+package com.banking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped per-account locks. Each account hashes to one of a fixed number of stripes, so
+ * operations on different accounts usually proceed in parallel. Several accounts are locked
+ * in ascending stripe order, which rules out deadlocks between overlapping operations.
+ */
+@Component
+public class AccountLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public AccountLocks(@Value("${banking.funds-check.lock-stripes:256}") int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Lock stripe count must be positive");
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Runs an action while holding the locks of every given account.
+     *
+     * @param accountIds the accounts to lock; duplicates and accounts sharing a stripe are locked once
+     * @param action the action to run
+     * @return the action's result
+     */
+    public <T> T withLocks(Collection<String> accountIds, Supplier<T> action) {
+        int[] order = accountIds.stream().mapToInt(this::stripeOf).sorted().distinct().toArray();
+        int locked = 0;
+        try {
+            for (; locked < order.length; locked++) {
+                stripes[order[locked]].lock();
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[order[i]].unlock();
+            }
+        }
+    }
+
+    private int stripeOf(String accountId) {
+        int hash = accountId.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
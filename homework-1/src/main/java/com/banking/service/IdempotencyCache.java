@@ -0,0 +1,225 @@
+package com.banking.service;
+
+import com.banking.dto.IdempotencyStatsResponse;
+import com.banking.dto.TransactionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time-expiring cache of idempotency key to created transaction.
+ *
+ * The first request with a key runs the create; concurrent requests with the same key wait for
+ * its result instead of creating a duplicate, and later ones replay the stored response. A key
+ * reused with a different request is rejected. Entries expire after a fixed TTL, and the oldest
+ * completed entries are evicted beyond {@code maxEntries} or beyond {@code maxBytes} of estimated
+ * memory, so memory stays bounded during a retry storm. An entry whose create is still running is
+ * never evicted, since a retry of its key would then create a duplicate; there are at most as many
+ * of those as concurrent creates. A failed create is not cached, so the client can retry it; its
+ * entry leaves the map at once but stays queued, counted against both bounds, until eviction unlinks
+ * it, so failing retries cannot grow the cache past its bounds either.
+ */
+@Component
+public class IdempotencyCache {
+    // Estimated heap cost of an entry besides its strings: the entry, map and queue nodes, future and response
+    private static final int ENTRY_OVERHEAD_BYTES = 640;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Insertion order; with a fixed TTL this is also expiry order. Holds every retained entry, including
+    // failed and expired ones no longer in the map, so the bounds are checked against it
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public IdempotencyCache(@Value("${banking.idempotency.max-entries:100000}") int maxEntries,
+                            @Value("${banking.idempotency.max-bytes:134217728}") long maxBytes,
+                            @Value("${banking.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        if (maxEntries < 1 || maxBytes < 1 || ttlSeconds < 1) {
+            throw new IllegalArgumentException("Idempotency cache size, memory and TTL must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /**
+     * Runs a create at most once per key.
+     *
+     * @param key the client's idempotency key
+     * @param fingerprint identifies the request, so a key cannot be reused for a different one
+     * @param create creates the transaction
+     * @return the created or replayed transaction
+     * @throws IllegalArgumentException if the key was already used with a different request
+     */
+    public Result execute(String key, String fingerprint, Supplier<TransactionResponse> create) {
+        while (true) {
+            long now = System.nanoTime();
+            Entry fresh = new Entry(key, fingerprint, now + ttlNanos);
+            Entry existing = entries.putIfAbsent(key, fresh);
+            if (existing == null) {
+                misses.increment();
+                queued.incrementAndGet();
+                bytes.addAndGet(fresh.sizeBytes);
+                order.add(fresh);
+                evict(now);
+                return new Result(run(fresh, create), false);
+            }
+            if (existing.isExpired(now)) {
+                // Still queued; evict() unlinks it when it reaches the head
+                if (entries.remove(key, existing)) {
+                    expirations.increment();
+                }
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                conflicts.increment();
+                throw new IllegalArgumentException("Idempotency-Key " + key + " was already used with a different request");
+            }
+            if (existing.response.isDone()) {
+                hits.increment();
+            } else {
+                coalesced.increment();
+            }
+            return new Result(await(existing), true);
+        }
+    }
+
+    private TransactionResponse run(Entry entry, Supplier<TransactionResponse> create) {
+        try {
+            TransactionResponse response = create.get();
+            entry.response.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // Completed first, so eviction may unlink it as soon as it is out of the map
+            entry.response.completeExceptionally(e);
+            entries.remove(entry.key, entry);
+            throw e;
+        }
+    }
+
+    private TransactionResponse await(Entry entry) {
+        try {
+            return entry.response.join();
+        } catch (CompletionException e) {
+            // Waiters see the same failure as the request that ran the create
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops expired entries from the head of the queue, then the oldest completed entries while the cache is
+     * beyond its entry or memory bound. Failed entries are completed and out of the map, so they go first
+     * among the ones of their age without counting as evictions.
+     */
+    private void evict(long now) {
+        Entry head;
+        while ((head = order.peek()) != null && head.isExpired(now)) {
+            if (order.remove(head)) {
+                release(head);
+                if (entries.remove(head.key, head)) {
+                    expirations.increment();
+                }
+            }
+        }
+        Iterator<Entry> oldest = order.iterator();
+        while (isOverBound() && oldest.hasNext()) {
+            Entry entry = oldest.next();
+            // Still in flight: evicting it would let a retry of its key create a duplicate
+            if (!entry.response.isDone()) {
+                continue;
+            }
+            oldest.remove();
+            release(entry);
+            if (entries.remove(entry.key, entry)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private boolean isOverBound() {
+        return queued.get() > maxEntries || bytes.get() > maxBytes;
+    }
+
+    /**
+     * Accounts for an entry unlinked from the queue, releasing its estimated memory once even if two evicting
+     * threads unlinked it concurrently.
+     */
+    private void release(Entry entry) {
+        if (entry.released.compareAndSet(false, true)) {
+            queued.decrementAndGet();
+            bytes.addAndGet(-entry.sizeBytes);
+        }
+    }
+
+    public IdempotencyStatsResponse stats() {
+        return new IdempotencyStatsResponse(entries.size(), maxEntries, bytes.get(), maxBytes,
+                TimeUnit.NANOSECONDS.toSeconds(ttlNanos),
+                hits.sum(), misses.sum(), coalesced.sum(), conflicts.sum(), evictions.sum(), expirations.sum());
+    }
+
+    /**
+     * Outcome of {@link #execute}: the transaction and whether it was replayed from the cache.
+     */
+    public static class Result {
+        private final TransactionResponse response;
+        private final boolean replayed;
+
+        Result(TransactionResponse response, boolean replayed) {
+            this.response = response;
+            this.replayed = replayed;
+        }
+
+        public TransactionResponse getResponse() {
+            return response;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String fingerprint;
+        private final long expiresAtNanos;
+        private final long sizeBytes;
+        private final CompletableFuture<TransactionResponse> response = new CompletableFuture<>();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Entry(String key, String fingerprint, long expiresAtNanos) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAtNanos = expiresAtNanos;
+            this.sizeBytes = ENTRY_OVERHEAD_BYTES + 2L * (key.length() + fingerprint.length());
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
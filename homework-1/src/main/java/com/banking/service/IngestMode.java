@@ -0,0 +1,11 @@
+package com.banking.service;
+
+/**
+ * How single transaction creations reach the repository.
+ */
+public enum IngestMode {
+    /** Each request thread saves its own transaction. */
+    DIRECT,
+    /** Request threads publish into a ring buffer drained in batches by one writer thread ({@link IngestPipeline}). */
+    PIPELINE
+}
@@ -0,0 +1,243 @@
+package com.banking.service;
+
+import com.banking.exception.InsufficientFundsException;
+import com.banking.model.Transaction;
+import com.banking.repository.BatchRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Single-writer ingest pipeline. Request threads publish transactions into a pre-allocated ring
+ * buffer and wait on a future; one writer thread drains the ring in batches and commits each batch
+ * with one repository call, so storage, index and aggregate updates never contend with each other.
+ *
+ * Producers claim a sequence number with a CAS, fill the slot and publish it by storing the
+ * sequence in the slot's marker. The writer consumes slots in sequence order and frees them by
+ * advancing its consumed sequence; a producer that would lap the writer waits for space.
+ *
+ * A batch the committer rejects with {@link BatchRejectedException} is retried one transaction at a time, since
+ * nothing of it was written; any other failure fails the whole batch, as part of it may already be journaled.
+ * If committing a batch throws an {@link Error}, the repository state is unknown, so the pipeline
+ * fails fast: the batch and every transaction already published fail, and later submissions are
+ * rejected as if the pipeline were closed, instead of waiting on a writer that no longer commits.
+ */
+public final class IngestPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(IngestPipeline.class);
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Function<List<Transaction>, String[]> committer;
+    private final int capacity;
+    private final int mask;
+    private final int maxBatchSize;
+    private final Transaction[] transactions;
+    private final CompletableFuture<?>[] futures;
+    // Sequence published in each slot, or -1 while it has not been written yet
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final Thread writer;
+
+    private volatile long consumed;
+    private volatile boolean writerIdle;
+    private volatile boolean closed;
+    // Set by the writer when a commit throws an Error; published before closed
+    private volatile Throwable failure;
+
+    /**
+     * Creates the pipeline and starts its writer thread.
+     *
+     * @param committer commits a batch and returns, per transaction, null when it was saved or the
+     *                  reason it was rejected
+     * @param ringSize number of slots, rounded up to a power of two
+     * @param maxBatchSize maximum number of transactions committed at once
+     */
+    public IngestPipeline(Function<List<Transaction>, String[]> committer, int ringSize, int maxBatchSize) {
+        if (ringSize < 1 || ringSize > 1 << 30) {
+            throw new IllegalArgumentException("Ring size must be between 1 and 2^30");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        int size = Integer.highestOneBit(ringSize);
+        if (size < ringSize) {
+            size <<= 1;
+        }
+        this.committer = committer;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.maxBatchSize = Math.min(maxBatchSize, size);
+        this.transactions = new Transaction[size];
+        this.futures = new CompletableFuture<?>[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.writer = new Thread(this::drain, "transaction-ingest");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Publishes a transaction for the writer thread, waiting for a free slot if the ring is full.
+     *
+     * @param transaction the transaction to save
+     * @return a future completed with the transaction once it is saved, or exceptionally with
+     *         {@link InsufficientFundsException} or the commit failure
+     * @throws IllegalStateException if the pipeline is closed or its writer has failed
+     */
+    public CompletableFuture<Transaction> submit(Transaction transaction) {
+        long sequence = claim();
+        int slot = (int) (sequence & mask);
+        CompletableFuture<Transaction> future = new CompletableFuture<>();
+        transactions[slot] = transaction;
+        futures[slot] = future;
+        // The volatile store publishes the slot contents to the writer
+        published.set(slot, sequence);
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+        if (closed && !writer.isAlive()) {
+            // Closed between the claim and the publish, after the writer's last drain
+            future.completeExceptionally(closedException());
+        }
+        return future;
+    }
+
+    private long claim() {
+        int spins = 0;
+        while (true) {
+            if (closed) {
+                throw closedException();
+            }
+            long sequence = claimed.get();
+            if (sequence - consumed >= capacity) {
+                if (++spins < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(FULL_PARK_NANOS);
+                }
+            } else if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    private void drain() {
+        List<Transaction> batch = new ArrayList<>(maxBatchSize);
+        List<CompletableFuture<?>> waiters = new ArrayList<>(maxBatchSize);
+        while (true) {
+            long next = consumed;
+            while (batch.size() < maxBatchSize) {
+                int slot = (int) (next & mask);
+                if (published.get(slot) != next) {
+                    break;
+                }
+                batch.add(transactions[slot]);
+                waiters.add(futures[slot]);
+                transactions[slot] = null;
+                futures[slot] = null;
+                next++;
+            }
+
+            if (batch.isEmpty()) {
+                if (closed && claimed.get() == next) {
+                    return;
+                }
+                writerIdle = true;
+                // Re-check after announcing idleness so a concurrent publish is not missed
+                if (published.get((int) (next & mask)) != next) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerIdle = false;
+                continue;
+            }
+
+            // Free the slots before committing so producers can refill them meanwhile
+            consumed = next;
+            if (failure != null) {
+                // The writer has failed; fail what was published before producers saw it closed
+                failAll(waiters, failure);
+            } else {
+                try {
+                    commit(batch, waiters);
+                } catch (Throwable e) {
+                    logger.error("Ingest writer failed; rejecting pending and further transactions", e);
+                    failure = e;
+                    closed = true;
+                    failAll(waiters, e);
+                }
+            }
+            batch.clear();
+            waiters.clear();
+        }
+    }
+
+    private void commit(List<Transaction> batch, List<CompletableFuture<?>> waiters) {
+        String[] rejections;
+        try {
+            rejections = committer.apply(batch);
+        } catch (BatchRejectedException e) {
+            if (batch.size() == 1) {
+                waiters.get(0).completeExceptionally(e);
+                return;
+            }
+            // Nothing was journaled: retry one by one so a single bad transaction only fails its own caller
+            for (int i = 0; i < batch.size(); i++) {
+                commit(List.of(batch.get(i)), List.of(waiters.get(i)));
+            }
+            return;
+        } catch (RuntimeException e) {
+            // Part of the batch may already be journaled, and saving it again would replay it twice
+            for (CompletableFuture<?> waiter : waiters) {
+                waiter.completeExceptionally(e);
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(waiters.get(i), batch.get(i), rejections[i]);
+        }
+    }
+
+    /**
+     * Fails every waiter not completed yet; those of a batch retried one by one may already be.
+     */
+    private static void failAll(List<CompletableFuture<?>> waiters, Throwable failure) {
+        IllegalStateException e = new IllegalStateException("Ingest writer failed", failure);
+        for (CompletableFuture<?> waiter : waiters) {
+            waiter.completeExceptionally(e);
+        }
+    }
+
+    private IllegalStateException closedException() {
+        Throwable cause = failure;
+        return cause == null ? new IllegalStateException("Ingest pipeline is closed") :
+                new IllegalStateException("Ingest writer failed", cause);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void complete(CompletableFuture<?> waiter, Transaction transaction, String rejection) {
+        if (rejection != null) {
+            waiter.completeExceptionally(new InsufficientFundsException(rejection));
+        } else {
+            ((CompletableFuture<Transaction>) waiter).complete(transaction);
+        }
+    }
+
+    /**
+     * Stops accepting transactions, lets the writer commit everything already published and waits for it.
+     */
+    public void close() throws InterruptedException {
+        closed = true;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.MINUTES.toMillis(1));
+    }
+}
@@ -0,0 +1,152 @@
+package com.banking.service;
+
+import com.banking.dto.SettlementStatsResponse;
+import com.banking.model.TransactionStatus;
+import com.banking.repository.SettlementResult;
+import com.banking.repository.TransactionRepository;
+import com.banking.repository.index.PositionBitmap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Settles PENDING transactions in the background when two-phase settlement is enabled.
+ *
+ * Creating a transaction then only appends it as PENDING, so request latency does not depend on settlement.
+ * A single worker thread wakes every {@code intervalMillis}, takes up to {@code batchSize} pending positions in
+ * log order from the PENDING status bitmap and settles them with one repository call, which journals the status
+ * changes and updates rows, bitmaps, aggregates and rollups under one acquisition of the write lock. A full batch
+ * is followed straight away by the next, so a backlog drains at full speed while saves still get the lock between
+ * batches. With the funds check enabled, a debit that the source balance cannot cover once the earlier
+ * settlements are applied ends FAILED.
+ *
+ * Pending transactions are journaled like any other, so those left on shutdown are settled after the restart.
+ */
+@Component
+public class SettlementWorker {
+    private static final Logger logger = LoggerFactory.getLogger(SettlementWorker.class);
+
+    private final TransactionRepository repository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final boolean rejectOverdrafts;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile long lastRunSettled;
+    private volatile long lastRunNanos;
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param enabled whether transactions are saved PENDING and settled here
+     * @param batchSize the maximum number of transactions settled under one acquisition of the write lock
+     * @param intervalMillis the pause between drains of the pending transactions
+     * @param rejectOverdrafts whether a debit the source balance cannot cover fails instead of completing
+     */
+    public SettlementWorker(TransactionRepository repository,
+                            @Value("${banking.settlement.enabled:false}") boolean enabled,
+                            @Value("${banking.settlement.batch-size:4096}") int batchSize,
+                            @Value("${banking.settlement.interval-ms:50}") long intervalMillis,
+                            @Value("${banking.funds-check.enabled:false}") boolean rejectOverdrafts) {
+        if (batchSize < 1 || intervalMillis < 1) {
+            throw new IllegalArgumentException("Settlement batch size and interval must be positive");
+        }
+        this.repository = repository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+        this.rejectOverdrafts = rejectOverdrafts;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-settlement");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::drain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lets the batch in progress finish; what is still pending stays journaled as PENDING.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void drain() {
+        try {
+            settlePending();
+        } catch (RuntimeException e) {
+            // Nothing was applied for the failed batch, so its transactions stay PENDING for the next run
+            logger.error("Failed to settle pending transactions", e);
+        }
+    }
+
+    /**
+     * Settles every transaction that is pending when the call starts, in batches of at most {@code batchSize}.
+     * Must not run concurrently with itself; the worker thread is the only caller while it runs.
+     *
+     * @return the number of transactions settled
+     */
+    public long settlePending() {
+        long started = System.nanoTime();
+        long settled = 0;
+        PositionBitmap pending = repository.statusBitmap(TransactionStatus.PENDING);
+        while (true) {
+            int[] positions = pending.stream().limit(batchSize).toArray();
+            if (positions.length == 0) {
+                break;
+            }
+            SettlementResult result = repository.settleAll(positions, rejectOverdrafts);
+            int batchSettled = result.getCompleted() + result.getFailed();
+            completed.add(result.getCompleted());
+            failed.add(result.getFailed());
+            batches.increment();
+            settled += batchSettled;
+            if (positions.length < batchSize || batchSettled == 0) {
+                break;
+            }
+        }
+        if (settled > 0) {
+            long elapsedNanos = Math.max(1, System.nanoTime() - started);
+            lastRunSettled = settled;
+            lastRunNanos = elapsedNanos;
+            logger.debug("Settled {} transactions in {} ms", settled, elapsedNanos / 1_000_000);
+        }
+        return settled;
+    }
+
+    /**
+     * Returns the settlement counters and the throughput of the last run that settled anything.
+     */
+    public SettlementStatsResponse stats() {
+        long settled = lastRunSettled;
+        long nanos = lastRunNanos;
+        return new SettlementStatsResponse(enabled, batchSize, intervalMillis,
+                repository.statusBitmap(TransactionStatus.PENDING).cardinality(),
+                completed.sum(), failed.sum(), batches.sum(), settled, TimeUnit.NANOSECONDS.toMillis(nanos),
+                nanos == 0 ? 0 : settled * 1_000_000_000L / nanos);
+    }
+}
@@ -1,18 +1,49 @@
 package com.banking.service;
 
 import com.banking.dto.CreateTransactionRequest;
+import com.banking.dto.QueryPlanResponse;
+import com.banking.dto.TransactionPage;
 import com.banking.dto.TransactionResponse;
 import com.banking.dto.TransactionSummaryResponse;
 import com.banking.dto.BalanceResponse;
+import com.banking.dto.AggregateVerificationResponse;
+import com.banking.dto.AccountReportResponse;
+import com.banking.dto.BatchTransactionResponse;
+import com.banking.dto.StatementResponse;
+import com.banking.dto.TopAccountsResponse;
+import com.banking.dto.ValidationErrorResponse;
+import com.banking.exception.InsufficientFundsException;
+import com.banking.model.Money;
 import com.banking.model.Transaction;
 import com.banking.model.TransactionStatus;
 import com.banking.model.TransactionType;
+import com.banking.repository.LedgerSnapshot;
 import com.banking.repository.TransactionRepository;
+import com.banking.repository.aggregate.AccountAggregate;
+import com.banking.repository.aggregate.AccountRollups;
+import com.banking.repository.aggregate.Granularity;
+import com.banking.repository.aggregate.RollupBucket;
+import com.banking.repository.aggregate.TopAccountsTracker;
+import com.banking.repository.query.AccessPath;
+import com.banking.repository.query.PageCursor;
+import com.banking.repository.query.QueryPlan;
+import com.banking.repository.query.QueryPlanner;
+import com.banking.repository.query.ScanExecutor;
+import com.banking.repository.query.TransactionQuery;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service layer for banking transaction operations.
@@ -20,32 +51,250 @@ import java.util.stream.Collectors;
  */
 @Service
 public class TransactionService {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
+    private static final String DEFAULT_CURRENCY = "USD";
+    private static final int DEFAULT_TOP_ACCOUNTS = 10;
+
     private final TransactionRepository repository;
+    private final QueryPlanner queryPlanner;
+    private final ScanExecutor scanExecutor;
+    private final boolean verifyAggregatesOnRead;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final AccountLocks accountLocks;
+    private final boolean fundsCheckEnabled;
+    private final boolean settlementEnabled;
+    private final IngestPipeline ingestPipeline;
+    // Debits checked against their source balance but not yet saved, by account. Added under the account's lock,
+    // removed once the save is visible, so the repository write lock is never taken under an account lock
+    private final Map<String, BigDecimal> reservations = new ConcurrentHashMap<>();
 
-    public TransactionService(TransactionRepository repository) {
+    public TransactionService(TransactionRepository repository,
+                              QueryPlanner queryPlanner,
+                              ScanExecutor scanExecutor,
+                              AccountLocks accountLocks,
+                              @Value("${banking.funds-check.enabled:false}") boolean fundsCheckEnabled,
+                              @Value("${banking.aggregates.verify-on-read:false}") boolean verifyAggregatesOnRead,
+                              @Value("${banking.pagination.default-limit:100}") int defaultPageSize,
+                              @Value("${banking.pagination.max-limit:1000}") int maxPageSize,
+                              @Value("${banking.ingest.mode:DIRECT}") IngestMode ingestMode,
+                              @Value("${banking.ingest.ring-size:4096}") int ingestRingSize,
+                              @Value("${banking.ingest.max-batch-size:256}") int ingestMaxBatchSize,
+                              @Value("${banking.settlement.enabled:false}") boolean settlementEnabled) {
         this.repository = repository;
+        this.queryPlanner = queryPlanner;
+        this.scanExecutor = scanExecutor;
+        this.accountLocks = accountLocks;
+        this.fundsCheckEnabled = fundsCheckEnabled;
+        this.settlementEnabled = settlementEnabled;
+        this.verifyAggregatesOnRead = verifyAggregatesOnRead;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.ingestPipeline = ingestMode == IngestMode.PIPELINE ?
+                new IngestPipeline(this::commitChecked, ingestRingSize, ingestMaxBatchSize) : null;
     }
 
     /**
      * Creates a new transaction with auto-generated ID and timestamp.
+     * With the funds check enabled, a debit is checked against the source balance less the debits still
+     * being saved, and reserved, while holding that account's lock, so concurrent debits cannot overdraw it.
+     * The save itself runs after the lock is released, so the journal append of one debit does not hold up
+     * the funds check of the next one on the same account.
+     * In {@link IngestMode#PIPELINE} mode the transaction is handed to the single writer thread,
+     * which commits it together with other pending creations.
+     * With settlement enabled the transaction is saved PENDING and completed later by the {@link SettlementWorker},
+     * which also fails debits the balance cannot cover once earlier settlements are applied.
      *
      * @param request the transaction request containing account details, amount, and type
      * @return the created transaction as a response DTO
+     * @throws InsufficientFundsException if the funds check is enabled and the source balance is too low
      */
     public TransactionResponse createTransaction(CreateTransactionRequest request) {
-        Transaction transaction = new Transaction(
+        Transaction transaction = toTransaction(request, LocalDateTime.now());
+        if (ingestPipeline != null) {
+            return mapToResponse(awaitIngest(ingestPipeline.submit(transaction)));
+        }
+        String debitedAccount = debitedAccount(transaction);
+        if (!fundsCheckEnabled || debitedAccount == null) {
+            return mapToResponse(repository.save(transaction));
+        }
+        BigDecimal amount = transaction.getAmount();
+        accountLocks.withLocks(List.of(debitedAccount), () -> {
+            BigDecimal balance = availableBalance(debitedAccount);
+            if (balance.compareTo(amount) < 0) {
+                throw new InsufficientFundsException(insufficientFundsMessage(debitedAccount, balance));
+            }
+            reserve(debitedAccount, amount);
+            return amount;
+        });
+        try {
+            return mapToResponse(repository.save(transaction));
+        } finally {
+            release(debitedAccount, amount);
+        }
+    }
+
+    /**
+     * Creates a batch of already validated transactions with one group commit to the repository.
+     * All transactions of the batch share one timestamp.
+     * With the funds check enabled, an item that would overdraw its source account is rejected
+     * and the rest are committed (see {@link #commitChecked(List)}).
+     *
+     * @param requests the validated transaction requests, in order
+     * @return the outcome of every request, in request order, indexed by position in {@code requests}
+     */
+    public List<BatchTransactionResponse.ItemResult> createTransactions(List<CreateTransactionRequest> requests) {
+        LocalDateTime timestamp = LocalDateTime.now();
+        List<Transaction> batch = new ArrayList<>(requests.size());
+        for (CreateTransactionRequest request : requests) {
+            batch.add(toTransaction(request, timestamp));
+        }
+        String[] rejections = commitChecked(batch);
+
+        List<BatchTransactionResponse.ItemResult> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (rejections[i] == null) {
+                results.add(new BatchTransactionResponse.ItemResult(
+                        i, BatchTransactionResponse.ItemResult.CREATED, mapToResponse(batch.get(i)), null));
+            } else {
+                results.add(new BatchTransactionResponse.ItemResult(
+                        i, BatchTransactionResponse.ItemResult.REJECTED, null,
+                        List.of(new ValidationErrorResponse.ValidationError("amount", rejections[i]))));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Saves the transactions of a batch with one repository call.
+     * With the funds check enabled, items are checked in order against balances that include the earlier
+     * items, while the locks of every debited account are held; the accepted debits are reserved, and the
+     * batch is saved after the locks are released.
+     *
+     * @param batch the transactions, in order
+     * @return per transaction, null when it was saved or the reason it was rejected
+     */
+    private String[] commitChecked(List<Transaction> batch) {
+        Set<String> debitedAccounts = new HashSet<>();
+        if (fundsCheckEnabled) {
+            for (Transaction transaction : batch) {
+                if (debitedAccount(transaction) != null) {
+                    debitedAccounts.add(debitedAccount(transaction));
+                }
+            }
+        }
+        if (debitedAccounts.isEmpty()) {
+            repository.saveAll(batch);
+            return new String[batch.size()];
+        }
+
+        String[] rejections = new String[batch.size()];
+        List<Transaction> accepted = new ArrayList<>(batch.size());
+        Map<String, BigDecimal> debits = accountLocks.withLocks(debitedAccounts, () -> {
+            Map<String, BigDecimal> available = new HashMap<>();
+            Map<String, BigDecimal> reserved = new HashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                Transaction transaction = batch.get(i);
+                String debitedAccount = debitedAccount(transaction);
+                if (debitedAccount != null) {
+                    BigDecimal balance = available.computeIfAbsent(debitedAccount, this::availableBalance);
+                    if (balance.compareTo(transaction.getAmount()) < 0) {
+                        rejections[i] = insufficientFundsMessage(debitedAccount, balance);
+                        continue;
+                    }
+                    available.put(debitedAccount, balance.subtract(transaction.getAmount()));
+                    reserved.merge(debitedAccount, transaction.getAmount(), BigDecimal::add);
+                }
+                String creditedAccount = creditedAccount(transaction);
+                if (creditedAccount != null) {
+                    available.put(creditedAccount,
+                            available.computeIfAbsent(creditedAccount, this::availableBalance).add(transaction.getAmount()));
+                }
+                accepted.add(transaction);
+            }
+            reserved.forEach(this::reserve);
+            return reserved;
+        });
+        try {
+            repository.saveAll(accepted);
+        } finally {
+            debits.forEach(this::release);
+        }
+        return rejections;
+    }
+
+    private static Transaction awaitIngest(CompletableFuture<Transaction> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Lets the ingest pipeline commit what it has already accepted before the repository shuts down.
+     */
+    @PreDestroy
+    public void stopIngest() throws InterruptedException {
+        if (ingestPipeline != null) {
+            ingestPipeline.close();
+        }
+    }
+
+    private BigDecimal currentBalance(String accountId) {
+        return repository.findAccountAggregate(accountId).getBalance().toBigDecimal();
+    }
+
+    /**
+     * Returns an account's balance less the debits reserved on it. The reservation is read first: a save
+     * publishes the new balance before its reservation is released, so a debit is never missed by both and
+     * at worst counted twice for an instant.
+     */
+    private BigDecimal availableBalance(String accountId) {
+        BigDecimal reserved = reservations.getOrDefault(accountId, BigDecimal.ZERO);
+        return currentBalance(accountId).subtract(reserved);
+    }
+
+    /**
+     * Reserves a checked debit until it is saved. Call with the account's lock held.
+     */
+    private void reserve(String accountId, BigDecimal amount) {
+        reservations.merge(accountId, amount, BigDecimal::add);
+    }
+
+    private void release(String accountId, BigDecimal amount) {
+        reservations.computeIfPresent(accountId, (id, reserved) -> {
+            BigDecimal left = reserved.subtract(amount);
+            return left.signum() == 0 ? null : left;
+        });
+    }
+
+    private static String debitedAccount(Transaction transaction) {
+        return transaction.getType() != TransactionType.DEPOSIT ? transaction.getFromAccount() : null;
+    }
+
+    private static String creditedAccount(Transaction transaction) {
+        return transaction.getType() != TransactionType.WITHDRAWAL ? transaction.getToAccount() : null;
+    }
+
+    private static String insufficientFundsMessage(String accountId, BigDecimal balance) {
+        return "Insufficient funds in account " + accountId + ": available balance is " + balance.toPlainString();
+    }
+
+    private Transaction toTransaction(CreateTransactionRequest request, LocalDateTime timestamp) {
+        return new Transaction(
                 UUID.randomUUID().toString(),
                 request.getFromAccount(),
                 request.getToAccount(),
                 request.getAmount(),
                 request.getCurrency().toUpperCase(),
                 TransactionType.valueOf(request.getType().toUpperCase()),
-                LocalDateTime.now(),
-                TransactionStatus.COMPLETED
+                timestamp,
+                settlementEnabled ? TransactionStatus.PENDING : TransactionStatus.COMPLETED
         );
-
-        Transaction saved = repository.save(transaction);
-        return mapToResponse(saved);
     }
 
     public TransactionResponse getTransactionById(String id) {
@@ -54,112 +303,450 @@ public class TransactionService {
                 .orElse(null);
     }
 
+    /**
+     * Lists transactions matching the optional filters.
+     * The query planner picks the most selective index and applies the remaining
+     * filters in one pass over its output; large scans run in parallel (see {@link ScanExecutor}).
+     *
+     * @param accountId optional account filter
+     * @param type optional transaction type filter
+     * @param status optional status filter, one or more comma-separated statuses
+     * @param from optional start of the date range (ISO format)
+     * @param to optional end of the date range (ISO format)
+     * @param minAmount optional inclusive lower bound of the amount
+     * @param maxAmount optional inclusive upper bound of the amount
+     * @param currency optional currency filter
+     * @return the matching transactions
+     */
     public List<TransactionResponse> getAllTransactions(
             String accountId,
             String type,
+            String status,
             String from,
-            String to) {
+            String to,
+            String minAmount,
+            String maxAmount,
+            String currency) {
 
-        List<Transaction> transactions = repository.findAll();
+        TransactionQuery query = buildQuery(accountId, type, status, from, to, minAmount, maxAmount, currency);
+        if (query == null) {
+            // Invalid type or status, return empty list
+            return Collections.emptyList();
+        }
 
-        // Filter by account ID
-        if (accountId != null && !accountId.isBlank()) {
-            transactions = transactions.stream()
-                    .filter(t -> (t.getFromAccount() != null && t.getFromAccount().equals(accountId)) ||
-                               (t.getToAccount() != null && t.getToAccount().equals(accountId)))
-                    .collect(Collectors.toList());
+        return scanExecutor.collect(queryPlanner.plan(query), this::mapToResponse);
+    }
+
+    /**
+     * Streams transactions matching the optional filters straight from the repository's storage.
+     * Nothing is materialized: rows are produced one at a time as the caller consumes the stream,
+     * which must be closed when done.
+     *
+     * @param accountId optional account filter
+     * @param type optional transaction type filter
+     * @param status optional status filter, one or more comma-separated statuses
+     * @param from optional start of the date range (ISO format)
+     * @param to optional end of the date range (ISO format)
+     * @param minAmount optional inclusive lower bound of the amount
+     * @param maxAmount optional inclusive upper bound of the amount
+     * @param currency optional currency filter
+     * @return a lazy stream of matching transactions
+     */
+    public Stream<TransactionResponse> exportTransactions(String accountId, String type, String status, String from,
+                                                         String to, String minAmount, String maxAmount,
+                                                         String currency) {
+        TransactionQuery query = buildQuery(accountId, type, status, from, to, minAmount, maxAmount, currency);
+        if (query == null) {
+            // Invalid type or status, export nothing
+            return Stream.empty();
+        }
+        return queryPlanner.plan(query).execute().map(this::mapToResponse);
+    }
+
+    /**
+     * Lists one page of transactions matching the optional filters, ordered by (timestamp, position).
+     * The cursor seeks directly to the start of the page, so deep pages cost the same as the first.
+     *
+     * @param accountId optional account filter
+     * @param type optional transaction type filter
+     * @param status optional status filter, one or more comma-separated statuses
+     * @param from optional start of the date range (ISO format)
+     * @param to optional end of the date range (ISO format)
+     * @param minAmount optional inclusive lower bound of the amount
+     * @param maxAmount optional inclusive upper bound of the amount
+     * @param currency optional currency filter
+     * @param cursor optional cursor returned with the previous page
+     * @param limit optional page size, capped at the configured maximum
+     * @return the page and the cursor of the next page, if there is one
+     */
+    public TransactionPage getTransactionsPage(String accountId, String type, String status, String from, String to,
+                                               String minAmount, String maxAmount, String currency,
+                                               String cursor, String limit) {
+        int pageSize = limit != null && !limit.isBlank() ? Integer.parseInt(limit.trim()) : defaultPageSize;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("limit must be a positive number");
+        }
+        pageSize = Math.min(pageSize, maxPageSize);
+
+        TransactionQuery query = buildQuery(accountId, type, status, from, to, minAmount, maxAmount, currency);
+        if (query == null) {
+            // Invalid type or status, return empty page
+            return new TransactionPage(Collections.emptyList(), null);
         }
+        if (cursor != null && !cursor.isBlank()) {
+            query.setAfter(PageCursor.decode(cursor));
+        }
+        // Fetch one extra row to learn whether another page follows
+        query.setLimit(pageSize + 1);
+
+        List<Transaction> rows = queryPlanner.plan(query).execute().collect(Collectors.toList());
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = PageCursor.encode(repository.timeKeyOf(rows.get(pageSize - 1)));
+        }
+        return new TransactionPage(rows.stream().map(this::mapToResponse).collect(Collectors.toList()), nextCursor);
+    }
 
-        // Filter by type
+    /**
+     * Describes how a transaction listing with the given filters would be executed.
+     *
+     * @param accountId optional account filter
+     * @param type optional transaction type filter
+     * @param status optional status filter, one or more comma-separated statuses
+     * @param from optional start of the date range (ISO format)
+     * @param to optional end of the date range (ISO format)
+     * @param minAmount optional inclusive lower bound of the amount
+     * @param maxAmount optional inclusive upper bound of the amount
+     * @param currency optional currency filter
+     * @return the chosen access path, its estimated row count, the residual filters and whether it runs in parallel
+     */
+    public QueryPlanResponse explainTransactions(String accountId, String type, String status, String from,
+                                                 String to, String minAmount, String maxAmount, String currency) {
+        TransactionQuery query = buildQuery(accountId, type, status, from, to, minAmount, maxAmount, currency);
+        if (query == null) {
+            return new QueryPlanResponse(AccessPath.EMPTY.name(), 0, List.of("invalid type or status"), false);
+        }
+        QueryPlan plan = queryPlanner.plan(query);
+        return new QueryPlanResponse(plan.getAccessPath().name(), plan.getEstimatedRows(), plan.getResidualFilters(),
+                scanExecutor.isParallel(plan));
+    }
+
+    /**
+     * Converts raw request parameters into a query.
+     *
+     * @return the query, or {@code null} if the type or a status is not a valid value
+     */
+    private TransactionQuery buildQuery(String accountId, String type, String status, String from, String to,
+                                        String minAmount, String maxAmount, String currency) {
+        TransactionQuery query = new TransactionQuery();
         if (type != null && !type.isBlank()) {
             try {
-                TransactionType txType = TransactionType.valueOf(type.toUpperCase());
-                transactions = transactions.stream()
-                        .filter(t -> t.getType() == txType)
-                        .collect(Collectors.toList());
+                query.setType(TransactionType.valueOf(type.toUpperCase()));
             } catch (IllegalArgumentException e) {
-                // Invalid type, return empty list
-                return Collections.emptyList();
+                return null;
             }
         }
-
-        // Filter by date range
-        if ((from != null && !from.isBlank()) || (to != null && !to.isBlank())) {
-            LocalDateTime fromDate = from != null && !from.isBlank() ?
-                    LocalDateTime.parse(from) : LocalDateTime.MIN;
-            LocalDateTime toDate = to != null && !to.isBlank() ?
-                    LocalDateTime.parse(to) : LocalDateTime.MAX;
-
-            transactions = transactions.stream()
-                    .filter(t -> !t.getTimestamp().isBefore(fromDate) &&
-                               !t.getTimestamp().isAfter(toDate))
-                    .collect(Collectors.toList());
+        if (status != null && !status.isBlank()) {
+            Set<TransactionStatus> statuses = EnumSet.noneOf(TransactionStatus.class);
+            for (String value : status.split(",")) {
+                try {
+                    statuses.add(TransactionStatus.valueOf(value.trim().toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            query.setStatuses(statuses);
         }
-
-        return transactions.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        if (accountId != null && !accountId.isBlank()) {
+            query.setAccountId(accountId);
+        }
+        if (from != null && !from.isBlank()) {
+            query.setFrom(LocalDateTime.parse(from));
+        }
+        if (to != null && !to.isBlank()) {
+            query.setTo(LocalDateTime.parse(to));
+        }
+        if (minAmount != null && !minAmount.isBlank()) {
+            query.setMinAmount(new BigDecimal(minAmount.trim()));
+        }
+        if (maxAmount != null && !maxAmount.isBlank()) {
+            query.setMaxAmount(new BigDecimal(maxAmount.trim()));
+        }
+        if (currency != null && !currency.isBlank()) {
+            query.setCurrency(currency.trim().toUpperCase());
+        }
+        return query;
     }
 
     /**
-     * Calculates the current balance for an account.
+     * Returns the current balance for an account from its incrementally maintained aggregate.
      * Only includes completed transactions.
      *
      * Note: This implementation assumes single-currency accounts.
-     * Uses the currency from the first transaction found, defaulting to USD if no transactions exist.
+     * Uses the currency from the first completed transaction, defaulting to USD if no transactions exist.
      *
      * @param accountId the account ID to calculate balance for
      * @return the balance response containing account ID, balance amount, and currency
      */
     public BalanceResponse getAccountBalance(String accountId) {
-        List<Transaction> accountTransactions = repository.findByAccountId(accountId);
-
-        BigDecimal balance = BigDecimal.ZERO;
-        String currency = "USD"; // Default currency if no transactions
-        boolean currencySet = false;
+        return toBalanceResponse(accountId, readAggregate(accountId, null));
+    }
 
-        for (Transaction tx : accountTransactions) {
-            if (tx.getStatus() == TransactionStatus.COMPLETED) {
-                // Use currency from first transaction found (avoid currency mixing)
-                if (!currencySet) {
-                    currency = tx.getCurrency();
-                    currencySet = true;
-                }
+    private static BalanceResponse toBalanceResponse(String accountId, AccountAggregate aggregate) {
+        String currency = aggregate.getCurrency() != null ? aggregate.getCurrency() : DEFAULT_CURRENCY;
+        return new BalanceResponse(accountId, aggregate.getBalance().toBigDecimal(), currency);
+    }
 
-                if (tx.getType() == TransactionType.DEPOSIT ||
-                    (tx.getType() == TransactionType.TRANSFER && accountId.equals(tx.getToAccount()))) {
-                    balance = balance.add(tx.getAmount());
-                } else if (tx.getType() == TransactionType.WITHDRAWAL ||
-                          (tx.getType() == TransactionType.TRANSFER && accountId.equals(tx.getFromAccount()))) {
-                    balance = balance.subtract(tx.getAmount());
-                }
-            }
+    /**
+     * Returns an account's balance at a past instant from its rollup checkpoints, scanning only the
+     * transactions in the last partial hour. Only includes completed transactions.
+     *
+     * @param accountId the account ID
+     * @param asOf the instant (ISO format), inclusive; null or blank for the current balance
+     * @return the balance response, with {@code asOf} set for a historical balance
+     */
+    public BalanceResponse getAccountBalance(String accountId, String asOf) {
+        if (asOf == null || asOf.isBlank()) {
+            return getAccountBalance(accountId);
         }
-
-        return new BalanceResponse(accountId, balance, currency);
+        LocalDateTime instant = LocalDateTime.parse(asOf);
+        AccountAggregate aggregate = repository.findAccountAggregate(accountId);
+        String currency = aggregate.getCurrency() != null ? aggregate.getCurrency() : DEFAULT_CURRENCY;
+        RollupBucket flows = repository.findAccountFlowsAsOf(accountId, instant);
+        return new BalanceResponse(accountId, toAmount(flows.getNet(), currency), currency, instant);
     }
 
     /**
-     * Generates a summary of all transactions for an account.
+     * Returns a summary of all transactions for an account from its incrementally maintained aggregate.
      * Includes total deposits, withdrawals, transaction count, and most recent transaction date.
      *
      * @param accountId the account ID to generate summary for
      * @return the transaction summary response
      */
     public TransactionSummaryResponse getAccountSummary(String accountId) {
-        List<Transaction> accountTransactions = repository.findByAccountId(accountId);
+        return toSummaryResponse(accountId, readAggregate(accountId, null));
+    }
+
+    private static TransactionSummaryResponse toSummaryResponse(String accountId, AccountAggregate aggregate) {
+        return new TransactionSummaryResponse(
+                accountId,
+                aggregate.getTotalDeposits().toBigDecimal(),
+                aggregate.getTotalWithdrawals().toBigDecimal(),
+                aggregate.getTransactionCount(),
+                aggregate.getMostRecentTransactionDate()
+        );
+    }
+
+    /**
+     * Returns an account's balance, summary and transactions read from one ledger snapshot, so all three
+     * agree with each other even while transactions keep arriving. Opening the snapshot copies nothing.
+     *
+     * @param accountId the account ID
+     * @param from optional start of the listed transactions (ISO format)
+     * @param to optional end of the listed transactions (ISO format)
+     * @return the report, with the log position it was read at
+     */
+    public AccountReportResponse getAccountReport(String accountId, String from, String to) {
+        try (LedgerSnapshot snapshot = repository.openSnapshot()) {
+            AccountAggregate aggregate = readAggregate(accountId, snapshot);
+            TransactionQuery query = buildQuery(accountId, null, null, from, to, null, null, null);
+            query.setSnapshot(snapshot);
+            List<TransactionResponse> transactions = scanExecutor.collect(queryPlanner.plan(query),
+                    this::mapToResponse);
+            return new AccountReportResponse(accountId, snapshot.size(), toBalanceResponse(accountId, aggregate),
+                    toSummaryResponse(accountId, aggregate), transactions);
+        }
+    }
+
+    /**
+     * Returns an account statement split into periods, served from the account's incrementally maintained
+     * rollups: the opening balance comes from the latest daily checkpoint and hour buckets before {@code from},
+     * and each period is one bucket, so the cost depends on the number of periods rather than transactions.
+     * Only periods with transactions are listed. Balances only include completed transactions.
+     *
+     * @param accountId the account ID
+     * @param granularity optional period length: hour, day or month (the default)
+     * @param from optional start of the statement (ISO format), rounded down to the start of its period
+     * @param to optional end of the statement (ISO format); the period containing it is included
+     * @return the statement with opening and closing balances and the flows of every period
+     * @throws IllegalArgumentException if the granularity is unknown or {@code from} is after {@code to}
+     */
+    public StatementResponse getAccountStatement(String accountId, String granularity, String from, String to) {
+        Granularity periodLength = granularity != null && !granularity.isBlank() ?
+                Granularity.valueOf(granularity.trim().toUpperCase()) : Granularity.MONTH;
+        LocalDateTime start = from != null && !from.isBlank() ? periodLength.truncate(LocalDateTime.parse(from)) : null;
+        LocalDateTime end = to != null && !to.isBlank() ? LocalDateTime.parse(to) : null;
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+
+        AccountAggregate aggregate = readAggregate(accountId, null);
+        String currency = aggregate.getCurrency() != null ? aggregate.getCurrency() : DEFAULT_CURRENCY;
+        Optional<AccountRollups> rollups = repository.findAccountRollups(accountId);
+        RollupBucket cumulative = rollups.isPresent() && start != null ?
+                rollups.get().flowsBefore(start) : RollupBucket.EMPTY;
+        BigDecimal openingBalance = toAmount(cumulative.getNet(), currency);
+
+        List<StatementResponse.Period> periods = new ArrayList<>();
+        if (rollups.isPresent()) {
+            for (Map.Entry<LocalDateTime, RollupBucket> entry :
+                    rollups.get().periods(periodLength, start, end).entrySet()) {
+                RollupBucket bucket = entry.getValue();
+                BigDecimal periodOpening = toAmount(cumulative.getNet(), currency);
+                cumulative = cumulative.plus(bucket);
+                periods.add(new StatementResponse.Period(
+                        entry.getKey(),
+                        periodLength.next(entry.getKey()),
+                        periodOpening,
+                        toAmount(bucket.getTotalIn(), currency),
+                        toAmount(bucket.getTotalOut(), currency),
+                        bucket.getTransactionCount(),
+                        toAmount(cumulative.getNet(), currency)));
+            }
+        }
+        return new StatementResponse(accountId, periodLength.name(), currency, openingBalance,
+                toAmount(cumulative.getNet(), currency), periods);
+    }
+
+    /**
+     * Returns the most active accounts over a recent window from the streaming heavy-hitters sketches.
+     * Values are estimates that may exceed the true value by at most {@code maxError}; the window is
+     * rounded up to whole sketch buckets.
+     *
+     * @param by optional ranking: count (transactions referencing the account, the default) or volume
+     *           (amount of completed transactions sent from the account)
+     * @param currency the currency volumes are ranked in; required for volume, since amounts in different
+     *                 currencies are not added up
+     * @param window optional window length, e.g. 15m, 1h or PT30M; defaults to the longest tracked window
+     * @param limit optional number of accounts, default 10, capped at the sketch capacity
+     * @return the top accounts, highest first
+     * @throws IllegalArgumentException if a parameter is invalid or the window exceeds the tracked range
+     */
+    public TopAccountsResponse getTopAccounts(String by, String currency, String window, String limit) {
+        TopAccountsTracker tracker = repository.topAccounts();
+        TopAccountsTracker.Metric metric = by != null && !by.isBlank() ?
+                TopAccountsTracker.Metric.valueOf(by.trim().toUpperCase()) : TopAccountsTracker.Metric.COUNT;
+        String volumeCurrency = null;
+        if (metric == TopAccountsTracker.Metric.VOLUME) {
+            if (currency == null || currency.isBlank()) {
+                throw new IllegalArgumentException("currency is required when ranking by volume");
+            }
+            volumeCurrency = currency.trim().toUpperCase();
+        }
+        Duration length = window != null && !window.isBlank() ? parseWindow(window.trim()) : tracker.maxWindow();
+        if (length.isNegative() || length.isZero() || length.compareTo(tracker.maxWindow()) > 0) {
+            throw new IllegalArgumentException("window must be positive and at most " + tracker.maxWindow());
+        }
+        int count = limit != null && !limit.isBlank() ? Integer.parseInt(limit.trim()) : DEFAULT_TOP_ACCOUNTS;
+        if (count < 1) {
+            throw new IllegalArgumentException("limit must be a positive number");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TopAccountsResponse.AccountActivity> accounts = new ArrayList<>();
+        for (TopAccountsTracker.Estimate estimate :
+                tracker.top(metric, volumeCurrency, length, Math.min(count, tracker.capacity()), now)) {
+            int scale = volumeCurrency != null ? Money.scaleOf(volumeCurrency) : 0;
+            accounts.add(new TopAccountsResponse.AccountActivity(estimate.getAccountId(),
+                    BigDecimal.valueOf(estimate.getValue(), scale), BigDecimal.valueOf(estimate.getMaxError(), scale)));
+        }
+        return new TopAccountsResponse(metric.name(), volumeCurrency, now.minus(length), now, accounts);
+    }
+
+    /**
+     * Parses a window given as an ISO-8601 duration or as a number followed by s, m, h or d.
+     */
+    private static Duration parseWindow(String window) {
+        if (window.toUpperCase().startsWith("P")) {
+            return Duration.parse(window.toUpperCase());
+        }
+        long amount = Long.parseLong(window.substring(0, window.length() - 1));
+        switch (Character.toLowerCase(window.charAt(window.length() - 1))) {
+            case 's':
+                return Duration.ofSeconds(amount);
+            case 'm':
+                return Duration.ofMinutes(amount);
+            case 'h':
+                return Duration.ofHours(amount);
+            case 'd':
+                return Duration.ofDays(amount);
+            default:
+                throw new IllegalArgumentException("Invalid window: " + window);
+        }
+    }
+
+    /**
+     * Converts minor units to a decimal amount with at least the currency's number of decimal places.
+     */
+    private static BigDecimal toAmount(Money money, String currency) {
+        return money.toBigDecimal().setScale(Math.max(money.getScale(), Money.scaleOf(currency)));
+    }
+
+    /**
+     * Recomputes an account's totals from the transaction log and compares them with the
+     * incrementally maintained aggregate.
+     *
+     * @param accountId the account ID to verify
+     * @return the verification result listing every field that drifted
+     */
+    public AggregateVerificationResponse verifyAccountAggregate(String accountId) {
+        // Both sides are read from one snapshot, so concurrent writes cannot show up as drift
+        try (LedgerSnapshot snapshot = repository.openSnapshot()) {
+            List<AggregateVerificationResponse.Drift> drifts = findDrifts(recomputeAggregate(accountId, snapshot),
+                    repository.findAccountAggregate(accountId, snapshot));
+            return new AggregateVerificationResponse(accountId, drifts.isEmpty(), drifts);
+        }
+    }
+
+    /**
+     * Reads an account's aggregate, optionally checking it against a recomputation from the same snapshot.
+     *
+     * @param snapshot the read view, or null for the current aggregate
+     */
+    private AccountAggregate readAggregate(String accountId, LedgerSnapshot snapshot) {
+        if (!verifyAggregatesOnRead) {
+            return repository.findAccountAggregate(accountId, snapshot);
+        }
+        try (LedgerSnapshot view = snapshot != null ? null : repository.openSnapshot()) {
+            LedgerSnapshot readAt = snapshot != null ? snapshot : view;
+            AccountAggregate aggregate = repository.findAccountAggregate(accountId, readAt);
+            List<AggregateVerificationResponse.Drift> drifts =
+                    findDrifts(recomputeAggregate(accountId, readAt), aggregate);
+            for (AggregateVerificationResponse.Drift drift : drifts) {
+                logger.warn("Aggregate drift for account {}: {} expected {} but was {}",
+                        accountId, drift.getField(), drift.getExpected(), drift.getActual());
+            }
+            return aggregate;
+        }
+    }
+
+    /**
+     * Replays an account's full history as a snapshot sees it.
+     */
+    private AccountAggregate recomputeAggregate(String accountId, LedgerSnapshot snapshot) {
+        List<Transaction> accountTransactions = repository.findByAccountId(accountId, snapshot);
 
+        BigDecimal balance = BigDecimal.ZERO;
         BigDecimal totalDeposits = BigDecimal.ZERO;
         BigDecimal totalWithdrawals = BigDecimal.ZERO;
+        String currency = null;
         LocalDateTime mostRecentDate = null;
 
         for (Transaction tx : accountTransactions) {
             if (tx.getStatus() == TransactionStatus.COMPLETED) {
+                // Use currency from first transaction found (avoid currency mixing)
+                if (currency == null) {
+                    currency = tx.getCurrency();
+                }
+
                 if (tx.getType() == TransactionType.DEPOSIT ||
                     (tx.getType() == TransactionType.TRANSFER && accountId.equals(tx.getToAccount()))) {
+                    balance = balance.add(tx.getAmount());
                     totalDeposits = totalDeposits.add(tx.getAmount());
                 } else if (tx.getType() == TransactionType.WITHDRAWAL ||
                           (tx.getType() == TransactionType.TRANSFER && accountId.equals(tx.getFromAccount()))) {
+                    balance = balance.subtract(tx.getAmount());
                     totalWithdrawals = totalWithdrawals.add(tx.getAmount());
                 }
 
@@ -169,13 +756,35 @@ public class TransactionService {
             }
         }
 
-        return new TransactionSummaryResponse(
-                accountId,
-                totalDeposits,
-                totalWithdrawals,
-                accountTransactions.size(),
-                mostRecentDate
-        );
+        return new AccountAggregate(currency, balance, totalDeposits, totalWithdrawals,
+                accountTransactions.size(), mostRecentDate);
+    }
+
+    private List<AggregateVerificationResponse.Drift> findDrifts(AccountAggregate expected, AccountAggregate actual) {
+        List<AggregateVerificationResponse.Drift> drifts = new ArrayList<>();
+        compareAmount(drifts, "balance", expected.getBalance(), actual.getBalance());
+        compareAmount(drifts, "totalDeposits", expected.getTotalDeposits(), actual.getTotalDeposits());
+        compareAmount(drifts, "totalWithdrawals", expected.getTotalWithdrawals(), actual.getTotalWithdrawals());
+        compareValue(drifts, "transactionCount", expected.getTransactionCount(), actual.getTransactionCount());
+        compareValue(drifts, "mostRecentTransactionDate",
+                expected.getMostRecentTransactionDate(), actual.getMostRecentTransactionDate());
+        compareValue(drifts, "currency", expected.getCurrency(), actual.getCurrency());
+        return drifts;
+    }
+
+    private void compareAmount(List<AggregateVerificationResponse.Drift> drifts, String field,
+                               Money expected, Money actual) {
+        if (expected.compareTo(actual) != 0) {
+            drifts.add(new AggregateVerificationResponse.Drift(field,
+                    expected.toBigDecimal().toPlainString(), actual.toBigDecimal().toPlainString()));
+        }
+    }
+
+    private void compareValue(List<AggregateVerificationResponse.Drift> drifts, String field,
+                              Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            drifts.add(new AggregateVerificationResponse.Drift(field, String.valueOf(expected), String.valueOf(actual)));
+        }
     }
 
     private TransactionResponse mapToResponse(Transaction transaction) {
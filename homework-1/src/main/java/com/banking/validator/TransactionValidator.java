@@ -2,6 +2,7 @@ package com.banking.validator;
 
 import com.banking.dto.CreateTransactionRequest;
 import com.banking.dto.ValidationErrorResponse;
+import com.banking.model.Money;
 import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -33,8 +34,13 @@ public class TransactionValidator {
             }
             // Strip trailing zeros before checking scale (handles numbers like 100.00 or 100E2)
             BigDecimal normalizedAmount = request.getAmount().stripTrailingZeros();
-            if (normalizedAmount.scale() > 2) {
-                errors.add(new ValidationErrorResponse.ValidationError("amount", "Amount must have maximum 2 decimal places"));
+            // The currency's minor unit decides the allowed decimal places (0 for JPY, 2 for most others)
+            int maxScale = Money.scaleOf(request.getCurrency() != null ? request.getCurrency().toUpperCase() : null);
+            if (normalizedAmount.scale() > maxScale) {
+                errors.add(new ValidationErrorResponse.ValidationError("amount",
+                        "Amount must have maximum " + maxScale + " decimal places"));
+            } else if (!fitsMinorUnits(normalizedAmount, maxScale)) {
+                errors.add(new ValidationErrorResponse.ValidationError("amount", "Amount is too large"));
             }
         }
 
@@ -87,6 +93,15 @@ public class TransactionValidator {
         return null;
     }
 
+    private boolean fitsMinorUnits(BigDecimal amount, int scale) {
+        try {
+            Money.toMinorUnits(amount, scale);
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
     private boolean isValidAccountNumber(String accountNumber) {
         return accountNumber != null && ACCOUNT_NUMBER_PATTERN.matcher(accountNumber).matches();
     }
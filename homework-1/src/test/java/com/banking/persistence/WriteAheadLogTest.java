@@ -0,0 +1,126 @@
+package com.banking.persistence;
+
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import com.banking.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WriteAheadLogTest {
+    private static final int SEGMENT_SIZE = 1 << 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysTransactionsAndStatusChangesInAppendOrder() throws IOException {
+        List<Transaction> first = transactions(0, 3);
+        List<Transaction> second = transactions(3, 2);
+        WriteAheadLog log = open();
+        replayIds(log);
+        log.append(first);
+        log.appendStatusChange(new int[]{0, 2}, TransactionStatus.COMPLETED);
+        log.append(second);
+        log.close();
+
+        List<String> events = new ArrayList<>();
+        List<Transaction> replayed = new ArrayList<>();
+        WriteAheadLog reopened = open();
+        reopened.replay(JournalPosition.START, transaction -> {
+            replayed.add(transaction);
+            events.add(transaction.getId());
+        }, (positions, status) -> events.add(status + Arrays.toString(positions)));
+        reopened.close();
+
+        assertEquals(List.of("tx-0", "tx-1", "tx-2", "COMPLETED[0, 2]", "tx-3", "tx-4"), events);
+        List<Transaction> appended = Stream.concat(first.stream(), second.stream()).collect(Collectors.toList());
+        for (int i = 0; i < appended.size(); i++) {
+            Transaction expected = appended.get(i);
+            Transaction actual = replayed.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getFromAccount(), actual.getFromAccount());
+            assertEquals(expected.getToAccount(), actual.getToAccount());
+            assertEquals(0, expected.getAmount().compareTo(actual.getAmount()));
+            assertEquals(expected.getCurrency(), actual.getCurrency());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getStatus(), actual.getStatus());
+        }
+    }
+
+    @Test
+    void stopsAtTornTailAndAppendsOverIt() throws IOException {
+        WriteAheadLog log = open();
+        replayIds(log);
+        log.append(transactions(0, 3));
+        log.append(transactions(3, 1));
+        JournalPosition end = log.position();
+        log.close();
+
+        // A crash in the middle of the last record leaves it with a bad checksum
+        flipByte(segmentFile(), end.getOffset() - 2);
+
+        WriteAheadLog recovered = open();
+        assertEquals(List.of("tx-0", "tx-1", "tx-2"), replayIds(recovered));
+        recovered.append(transactions(10, 1));
+        recovered.close();
+
+        WriteAheadLog reopened = open();
+        assertEquals(List.of("tx-0", "tx-1", "tx-2", "tx-10"), replayIds(reopened));
+        reopened.close();
+    }
+
+    private WriteAheadLog open() throws IOException {
+        return new WriteAheadLog(directory, SEGMENT_SIZE, FsyncPolicy.NEVER, 0);
+    }
+
+    private static List<String> replayIds(WriteAheadLog log) {
+        List<String> ids = new ArrayList<>();
+        log.replay(transaction -> ids.add(transaction.getId()));
+        return ids;
+    }
+
+    private static List<Transaction> transactions(int first, int count) {
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            batch.add(new Transaction("tx-" + i, i % 2 == 0 ? null : "ACC-" + i, "ACC-" + (i + 1),
+                    new BigDecimal(i + 1).movePointLeft(2), "USD",
+                    i % 2 == 0 ? TransactionType.DEPOSIT : TransactionType.TRANSFER,
+                    LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(i), TransactionStatus.PENDING));
+        }
+        return batch;
+    }
+
+    private Path segmentFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg"))
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+
+    private static void flipByte(Path file, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, offset);
+            buffer.put(0, (byte) (buffer.get(0) ^ 0xFF));
+            buffer.rewind();
+            channel.write(buffer, offset);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.banking.repository;
+
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import com.banking.model.TransactionType;
+import com.banking.persistence.SnapshotStore;
+import com.banking.persistence.TransactionJournal;
+import com.banking.repository.aggregate.AccountAggregate;
+import com.banking.repository.aggregate.TopAccountsTracker;
+import com.banking.repository.storage.TransactionLog;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerSnapshotTest {
+    private static final String ACCOUNT = "ACC-SNAPSHOT";
+
+    @Test
+    void settlementIsVisibleOnlyToSnapshotsOpenedAfterIt() {
+        TransactionRepository repository = repository(1_000_000);
+        Transaction deposit = pendingDeposit("25.00");
+        repository.saveAll(List.of(deposit));
+
+        try (LedgerSnapshot before = repository.openSnapshot()) {
+            AccountAggregate pendingAggregate = repository.findAccountAggregate(ACCOUNT, before);
+            settlePending(repository);
+
+            assertEquals(TransactionStatus.PENDING,
+                    repository.findById(deposit.getId(), before).orElseThrow().getStatus());
+            assertEquals(pendingAggregate.getBalance(), repository.findAccountAggregate(ACCOUNT, before).getBalance());
+            assertTrue(repository.findByAccountId(ACCOUNT, before).stream()
+                    .allMatch(transaction -> transaction.getStatus() == TransactionStatus.PENDING));
+
+            try (LedgerSnapshot after = repository.openSnapshot()) {
+                assertEquals(TransactionStatus.COMPLETED,
+                        repository.findById(deposit.getId(), after).orElseThrow().getStatus());
+                assertEquals(new BigDecimal("25.00"),
+                        repository.findAccountAggregate(ACCOUNT, after).getBalance().toBigDecimal());
+            }
+        }
+        assertEquals(TransactionStatus.COMPLETED, repository.findById(deposit.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void snapshotPinningMoreSettlementsThanTheCapIsExpired() {
+        TransactionRepository repository = repository(1);
+        Transaction first = pendingDeposit("1.00");
+        Transaction second = pendingDeposit("2.00");
+        Transaction third = pendingDeposit("3.00");
+        repository.saveAll(List.of(first, second, third));
+
+        LedgerSnapshot snapshot = repository.openSnapshot();
+        settle(repository, first);
+        settle(repository, second);
+        assertFalse(snapshot.isExpired());
+
+        // Two settlements are remembered for the snapshot, so the next one expires it before it is applied
+        settle(repository, third);
+        assertTrue(snapshot.isExpired());
+        assertThrows(SnapshotExpiredException.class, () -> repository.findById(first.getId(), snapshot));
+        assertThrows(SnapshotExpiredException.class, () -> repository.findAccountAggregate(ACCOUNT, snapshot));
+        snapshot.close();
+
+        try (LedgerSnapshot fresh = repository.openSnapshot()) {
+            assertEquals(TransactionStatus.COMPLETED,
+                    repository.findById(third.getId(), fresh).orElseThrow().getStatus());
+        }
+    }
+
+    private static TransactionRepository repository(int maxRetainedSettlements) {
+        return new TransactionRepository(new TransactionLog(), TransactionJournal.NONE, SnapshotStore.NONE,
+                new TopAccountsTracker(60, 60, 64), 600, maxRetainedSettlements);
+    }
+
+    private static Transaction pendingDeposit(String amount) {
+        return new Transaction(UUID.randomUUID().toString(), null, ACCOUNT, new BigDecimal(amount), "USD",
+                TransactionType.DEPOSIT, LocalDateTime.now(), TransactionStatus.PENDING);
+    }
+
+    private static void settlePending(TransactionRepository repository) {
+        repository.settleAll(repository.statusBitmap(TransactionStatus.PENDING).stream().toArray(), false);
+    }
+
+    private static void settle(TransactionRepository repository, Transaction transaction) {
+        repository.settleAll(new int[]{repository.timeKeyOf(transaction).getPosition()}, false);
+    }
+}
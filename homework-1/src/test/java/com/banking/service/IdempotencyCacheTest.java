@@ -0,0 +1,117 @@
+package com.banking.service;
+
+import com.banking.dto.IdempotencyStatsResponse;
+import com.banking.dto.TransactionResponse;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void retryReplaysTheFirstResponse() {
+        IdempotencyCache cache = new IdempotencyCache(100, 1 << 20, 3600);
+        AtomicInteger creates = new AtomicInteger();
+
+        IdempotencyCache.Result first = cache.execute("key", "request", () -> created(creates));
+        IdempotencyCache.Result retry = cache.execute("key", "request", () -> created(creates));
+
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertSame(first.getResponse(), retry.getResponse());
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void retryAfterFailedCreateRunsItAgain() {
+        IdempotencyCache cache = new IdempotencyCache(100, 1 << 20, 3600);
+        AtomicInteger creates = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> cache.execute("key", "request", () -> {
+            creates.incrementAndGet();
+            throw new IllegalStateException("journal unavailable");
+        }));
+        IdempotencyCache.Result retry = cache.execute("key", "request", () -> created(creates));
+        IdempotencyCache.Result again = cache.execute("key", "request", () -> created(creates));
+
+        assertFalse(retry.isReplayed());
+        assertTrue(again.isReplayed());
+        assertSame(retry.getResponse(), again.getResponse());
+        assertEquals(2, creates.get());
+    }
+
+    @Test
+    void failedCreatesStayWithinTheBounds() {
+        IdempotencyCache cache = new IdempotencyCache(10, 1 << 20, 3600);
+        for (int i = 0; i < 10_000; i++) {
+            String key = "key-" + i;
+            assertThrows(IllegalStateException.class, () -> cache.execute(key, "request", () -> {
+                throw new IllegalStateException("rejected");
+            }));
+        }
+
+        IdempotencyStatsResponse stats = cache.stats();
+        assertEquals(0, stats.getSize());
+        // At most the bound plus the entry being added are still queued
+        assertTrue(stats.getEstimatedBytes() <= 11 * 1024, "estimated bytes " + stats.getEstimatedBytes());
+    }
+
+    @Test
+    void concurrentRetryWaitsForTheCreateInFlight() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(100, 1 << 20, 3600);
+        AtomicInteger creates = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<IdempotencyCache.Result> first = CompletableFuture.supplyAsync(() ->
+                cache.execute("key", "request", () -> {
+                    started.countDown();
+                    await(release);
+                    return created(creates);
+                }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        CompletableFuture<IdempotencyCache.Result> retry = CompletableFuture.supplyAsync(() ->
+                cache.execute("key", "request", () -> created(creates)));
+        // Let the create finish only once the retry is waiting on it
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (cache.stats().getCoalesced() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        assertSame(first.get(10, TimeUnit.SECONDS).getResponse(), retry.get(10, TimeUnit.SECONDS).getResponse());
+        assertTrue(retry.get().isReplayed());
+        assertEquals(1, cache.stats().getCoalesced());
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        IdempotencyCache cache = new IdempotencyCache(100, 1 << 20, 3600);
+        cache.execute("key", "request", TransactionResponse::new);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.execute("key", "other request", TransactionResponse::new));
+    }
+
+    private static TransactionResponse created(AtomicInteger creates) {
+        creates.incrementAndGet();
+        return new TransactionResponse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
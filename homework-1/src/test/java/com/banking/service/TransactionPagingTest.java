@@ -0,0 +1,124 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionPage;
+import com.banking.dto.TransactionResponse;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionStatus;
+import com.banking.model.TransactionType;
+import com.banking.persistence.SnapshotStore;
+import com.banking.persistence.TransactionJournal;
+import com.banking.repository.TransactionRepository;
+import com.banking.repository.aggregate.TopAccountsTracker;
+import com.banking.repository.query.QueryPlanner;
+import com.banking.repository.query.ScanExecutor;
+import com.banking.repository.storage.TransactionLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionPagingTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int EXISTING_ROWS = 20_000;
+    private static final String ACCOUNT = "ACC-3";
+
+    private TransactionRepository repository;
+    private TransactionService service;
+    private List<Transaction> existing;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository(new TransactionLog(), TransactionJournal.NONE, SnapshotStore.NONE,
+                new TopAccountsTracker(60, 60, 64));
+        service = new TransactionService(repository, new QueryPlanner(repository), new ScanExecutor(50_000, 1),
+                new AccountLocks(256), false, false, 100, 1000, IngestMode.DIRECT, 4096, 256, false);
+        // Includes the sample seed data the repository adds when it starts empty
+        existing = new ArrayList<>(repository.findAll());
+        List<Transaction> batch = transactions(new Random(1), EXISTING_ROWS);
+        repository.saveAll(batch);
+        existing.addAll(batch);
+    }
+
+    @Test
+    void pagesSeeEveryExistingRowOnceWhileRowsAreInserted() throws Exception {
+        Set<String> expected = existing.stream().map(Transaction::getId).collect(Collectors.toSet());
+
+        assertPagesCover(expected, null);
+    }
+
+    @Test
+    void accountPagesSeeEveryExistingRowOnceWhileRowsAreInserted() throws Exception {
+        Set<String> expected = existing.stream()
+                .filter(transaction -> ACCOUNT.equals(transaction.getFromAccount())
+                        || ACCOUNT.equals(transaction.getToAccount()))
+                .map(Transaction::getId)
+                .collect(Collectors.toSet());
+
+        assertPagesCover(expected, ACCOUNT);
+    }
+
+    /**
+     * Pages through the listing while another thread inserts rows at timestamps spread across the whole range,
+     * before and after the cursor.
+     */
+    private void assertPagesCover(Set<String> expected, String accountId) throws Exception {
+        AtomicBoolean paging = new AtomicBoolean(true);
+        CompletableFuture<Integer> inserts = CompletableFuture.supplyAsync(() -> {
+            Random random = new Random(2);
+            int inserted = 0;
+            while (paging.get()) {
+                repository.saveAll(transactions(random, 50));
+                inserted += 50;
+            }
+            return inserted;
+        });
+
+        Set<String> seen = new HashSet<>();
+        LocalDateTime previous = LocalDateTime.MIN;
+        String cursor = null;
+        try {
+            do {
+                TransactionPage page = service.getTransactionsPage(accountId, null, null, null, null, null, null,
+                        null, cursor, "200");
+                for (TransactionResponse transaction : page.getTransactions()) {
+                    assertTrue(seen.add(transaction.getId()), "returned twice: " + transaction.getId());
+                    assertFalse(transaction.getTimestamp().isBefore(previous),
+                            "out of order: " + transaction.getTimestamp() + " after " + previous);
+                    previous = transaction.getTimestamp();
+                }
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        } finally {
+            paging.set(false);
+        }
+
+        assertTrue(inserts.get(10, TimeUnit.SECONDS) > 0);
+        Set<String> missing = new HashSet<>(expected);
+        missing.removeAll(seen);
+        assertEquals(Set.of(), missing);
+    }
+
+    private static List<Transaction> transactions(Random random, int count) {
+        List<Transaction> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Transaction(UUID.randomUUID().toString(), "ACC-" + random.nextInt(20),
+                    "ACC-" + random.nextInt(20), new BigDecimal(random.nextInt(10_000) + 1).movePointLeft(2), "USD",
+                    TransactionType.TRANSFER, START.plusSeconds(random.nextInt(86_400)), TransactionStatus.COMPLETED));
+        }
+        return batch;
+    }
+}